@@ -0,0 +1,75 @@
+package com.example.api_gateway.cache;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * A fully buffered upstream response that can be replayed to other clients.
+ *
+ * @param status  the upstream status code
+ * @param headers the replayable upstream headers (read-only)
+ * @param body    the complete response body
+ * @param etag    a strong entity tag derived from the body
+ */
+public record CachedResponse(
+        HttpStatusCode status,
+        HttpHeaders headers,
+        byte[] body,
+        String etag
+) {
+
+    /** Response header telling the client whether the gateway served it from a shared response. */
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    public static CachedResponse of(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        return new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), body,
+                "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+    }
+
+    /**
+     * @return true if an {@code If-None-Match} header value matches this response's entity tag.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replays this response to the client of the exchange, or answers 304 Not Modified if the
+     * client's {@code If-None-Match} already names this version.
+     * @param cacheStatus value of the {@code X-Cache} header telling the client how it was served.
+     */
+    public Mono<Void> writeTo(ServerWebExchange exchange, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().set(CACHE_STATUS_HEADER, cacheStatus);
+        response.getHeaders().setETag(etag);
+
+        if (matches(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(status);
+        headers.forEach((name, values) -> response.getHeaders().put(name, values));
+        response.getHeaders().setContentLength(body.length);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
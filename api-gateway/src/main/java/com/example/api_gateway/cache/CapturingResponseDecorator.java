@@ -0,0 +1,133 @@
+package com.example.api_gateway.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Passes the upstream response to the client unchanged while keeping a copy of it.
+ * <p>
+ * Successful responses that are safe to share are held back until their body is complete, so they
+ * can be sent with an {@code ETag} derived from it. Once written, they are handed to
+ * {@code onCaptured}. Everything else, e.g. errors, compressed or cookie-setting responses, is passed
+ * through without a copy, and bodies above {@code maxBodyBytes} are streamed on once they go over it.
+ * </p>
+ */
+public class CapturingResponseDecorator extends ServerHttpResponseDecorator {
+
+    /** Headers that describe the connection rather than the representation, they are never replayed. */
+    private static final List<String> SKIPPED_HEADERS = List.of(
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION,
+            HttpHeaders.SET_COOKIE, HttpHeaders.ETAG);
+
+    private final int maxBodyBytes;
+    private final Consumer<CachedResponse> onCaptured;
+    private final Runnable onSkipped;
+
+    public CapturingResponseDecorator(ServerHttpResponse delegate, int maxBodyBytes,
+            Consumer<CachedResponse> onCaptured, Runnable onSkipped) {
+        super(delegate);
+        this.maxBodyBytes = maxBodyBytes;
+        this.onCaptured = onCaptured;
+        this.onSkipped = onSkipped;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        HttpStatusCode status = getStatusCode();
+        if (status == null || status.value() != 200 || !isShareable(getHeaders())) {
+            onSkipped.run();
+            return super.writeWith(body);
+        }
+        long[] size = {0};
+        boolean[] overflow = {false};
+        CachedResponse[] captured = {null};
+
+        // Hold the body back until it is complete or over the limit: the first list is either the
+        // whole body, or the part of it that went over the limit followed by one list per buffer
+        Flux<List<DataBuffer>> chunks = Flux.from(body)
+                .map(DataBuffer.class::cast)
+                .bufferUntil(buffer -> {
+                    if (!overflow[0]) {
+                        size[0] += buffer.readableByteCount();
+                        overflow[0] = size[0] > maxBodyBytes;
+                    }
+                    return overflow[0];
+                });
+
+        Flux<DataBuffer> released = chunks
+                .switchOnFirst((first, all) -> {
+                    if (!overflow[0] && (first.hasValue() || first.isOnComplete())) {
+                        // Complete before the headers are written, so even the first response carries the ETag
+                        captured[0] = CachedResponse.of(status, replayableHeaders(getHeaders()),
+                                first.hasValue() ? copy(first.get()) : new byte[0]);
+                        getHeaders().setETag(captured[0].etag());
+                    }
+                    return all;
+                })
+                .concatMapIterable(buffers -> buffers);
+
+        return super.writeWith(released)
+                .doOnSuccess(done -> {
+                    if (captured[0] != null) {
+                        onCaptured.accept(captured[0]);
+                    } else {
+                        onSkipped.run();
+                    }
+                })
+                .doOnError(error -> onSkipped.run());
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        // Streaming responses (e.g. server-sent events) are never captured
+        onSkipped.run();
+        return super.writeAndFlushWith(body);
+    }
+
+    private static byte[] copy(List<DataBuffer> buffers) {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        for (DataBuffer buffer : buffers) {
+            int length = buffer.readableByteCount();
+            byte[] bytes = new byte[length];
+            int position = buffer.readPosition();
+            buffer.read(bytes);
+            buffer.readPosition(position);
+            copy.write(bytes, 0, length);
+        }
+        return copy.toByteArray();
+    }
+
+    private static boolean isShareable(HttpHeaders headers) {
+        if (headers.containsKey(HttpHeaders.SET_COOKIE) || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null) {
+            return true;
+        }
+        String directives = cacheControl.toLowerCase(Locale.ROOT);
+        return !directives.contains("no-store") && !directives.contains("private");
+    }
+
+    private static HttpHeaders replayableHeaders(HttpHeaders upstream) {
+        HttpHeaders headers = new HttpHeaders();
+        upstream.forEach((name, values) -> {
+            if (SKIPPED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.api_gateway.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * LRU of upstream responses, keyed by request path and query, bounded both by entry count and by
+ * the total size of the bodies it holds.
+ * Entries expire after the TTL of the route that stored them and can be invalidated explicitly.
+ * <p>
+ * Every invalidation starts a new generation. A response fetched while an invalidation happened may
+ * predate it, so {@link #put} drops responses read in an earlier generation than the current one.
+ * </p>
+ */
+@Component
+public class ResponseCache implements MeterBinder {
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Map<String, Entry> entries;
+    // Guarded by entries
+    private long bytes;
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ResponseCache(@Value("${gateway.response-cache.max-entries:10000}") int maxEntries,
+            @Value("${gateway.response-cache.max-size:64MB}") DataSize maxSize) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxSize.toBytes();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @return the current generation, to pass to {@link #put} with a response read from now on.
+     */
+    public long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * @return the live cached response for the key, or null.
+     */
+    public CachedResponse get(String key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos - now > 0) {
+                hits.increment();
+                return entry.response;
+            }
+            if (entry != null) {
+                remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores a response, unless the cache was invalidated since {@code generation} or the body alone
+     * is larger than the whole cache. Least recently used entries are evicted to make room.
+     *
+     * @param generation the {@link #generation()} before the response was requested upstream.
+     */
+    public void put(String key, CachedResponse response, long ttlNanos, long generation) {
+        if (response.body().length > maxBytes) {
+            return;
+        }
+        Entry entry = new Entry(response, System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            if (generation != this.generation) {
+                return;
+            }
+            remove(key);
+            entries.put(key, entry);
+            bytes += response.body().length;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries || bytes > maxBytes) {
+                bytes -= eldest.next().response.body().length;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes every entry whose key matches.
+     */
+    public void invalidate(Predicate<String> keys) {
+        synchronized (entries) {
+            generation++;
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> entry = it.next();
+                if (keys.test(entry.getKey())) {
+                    bytes -= entry.getValue().response.body().length;
+                    it.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a conditional request answered with 304 Not Modified.
+     */
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return total size of the cached bodies.
+     */
+    public long bytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.response.body().length;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gateway.response-cache.hits", hits, LongAdder::sum).register(registry);
+        FunctionCounter.builder("gateway.response-cache.misses", misses, LongAdder::sum).register(registry);
+        FunctionCounter.builder("gateway.response-cache.not-modified", notModified, LongAdder::sum)
+                .description("Conditional requests answered with 304")
+                .register(registry);
+        FunctionCounter.builder("gateway.response-cache.evictions", evictions, LongAdder::sum).register(registry);
+        FunctionCounter.builder("gateway.response-cache.invalidations", invalidations, LongAdder::sum)
+                .description("Entries removed because the upstream data changed")
+                .register(registry);
+        Gauge.builder("gateway.response-cache.size", this, ResponseCache::size).register(registry);
+        Gauge.builder("gateway.response-cache.bytes", this, ResponseCache::bytes)
+                .description("Total size of the cached bodies")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private record Entry(CachedResponse response, long expiresAtNanos) {}
+}
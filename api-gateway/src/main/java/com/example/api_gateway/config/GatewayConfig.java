@@ -1,45 +1,130 @@
 package com.example.api_gateway.config;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 import com.example.api_gateway.filter.AuthenticationFilter;
+import com.example.api_gateway.filter.RateLimitFilter;
+import com.example.api_gateway.filter.RequestCoalescingFilter;
+import com.example.api_gateway.filter.ResponseCacheFilter;
+import com.example.api_gateway.filter.UpstreamProtectionFilter;
 
 @Configuration
 public class GatewayConfig {
 
+    private static final String RATE_LIMIT_PREFIX = "gateway.rate-limit.";
+    private static final String UPSTREAM_PREFIX = "gateway.upstream.";
+
     @Autowired
     private AuthenticationFilter filter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private ResponseCacheFilter responseCacheFilter;
+
+    @Autowired
+    private RequestCoalescingFilter coalescingFilter;
+
+    @Autowired
+    private UpstreamProtectionFilter upstreamProtectionFilter;
+
+    @Autowired
+    private Environment env;
+
     /**
      * Defines the routes for the gateway programmatically and applies the authentication filter.
      * This is an alternative to defining routes in application.properties.
+     * Upstreams are resolved through the service registry ({@code lb://}), so every service can run
+     * several replicas behind the gateway, locally as well as in Docker.
      */
     @Bean
     public RouteLocator routes(RouteLocatorBuilder builder) {
         return builder.routes()
                 .route("auth-service", r -> r.path("/auth/**")
-                        .filters(f -> f.filter(filter.apply(new AuthenticationFilter.Config())))
-                        .uri("http://auth-service:9000"))
-                        // .uri("http://localhost:9000"))       // use this for local testing
+                        .filters(f -> upstreamProtection(defaultFilters(f, "auth-service"), "auth-service"))
+                        .uri("lb://auth-service"))
 
                 .route("product-service", r -> r.path("/products/**")
-                        .filters(f -> f.filter(filter.apply(new AuthenticationFilter.Config())))
-                        .uri("http://product-service:9001"))
-                        // .uri("http://localhost:9001"))       // use this for local testing
+                        .filters(f -> upstreamProtection(defaultFilters(f, "product-service")
+                                // Catalogue reads are the same for every caller, serve repeats from the gateway
+                                .filter(responseCacheFilter.apply(new ResponseCacheFilter.Config()
+                                        .setTtl(env.getProperty("gateway.response-cache.product-service.ttl",
+                                                Duration.class, Duration.ofSeconds(30)))))
+                                // Flash sale bursts on one product collapse into a single upstream call
+                                .filter(coalescingFilter.apply(new RequestCoalescingFilter.Config()
+                                        .setRouteId("product-service")
+                                        .setMaxWait(env.getProperty("gateway.coalescing.product-service.max-wait",
+                                                Duration.class, Duration.ofSeconds(2))))), "product-service"))
+                        .uri("lb://product-service"))
 
                 .route("user-service", r -> r.path("/users/**")
-                        .filters(f -> f.filter(filter.apply(new AuthenticationFilter.Config())))
-                        .uri("http://user-service:9002"))
-                        // .uri("http://localhost:9002"))       // use this for local testing
-                        
+                        .filters(f -> upstreamProtection(defaultFilters(f, "user-service"), "user-service"))
+                        .uri("lb://user-service"))
+
                 .route("order-service", r -> r.path("/orders/**")
-                        .filters(f -> f.filter(filter.apply(new AuthenticationFilter.Config())))
-                        .uri("http://order-service:9003"))
-                        // .uri("http://localhost:9003"))       // use this for local testing
+                        .filters(f -> upstreamProtection(defaultFilters(f, "order-service"), "order-service"))
+                        .uri("lb://order-service"))
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Filters shared by every route: authentication first, so the rate limiter can key on the JWT subject.
+     */
+    private GatewayFilterSpec defaultFilters(GatewayFilterSpec f, String routeId) {
+        return f.filter(filter.apply(new AuthenticationFilter.Config()))
+                .filter(rateLimitFilter.apply(rateLimitConfig(routeId)));
+    }
+
+    /**
+     * Builds the rate limit of a route from {@code gateway.rate-limit.<routeId>.*},
+     * falling back to {@code gateway.rate-limit.default.*}.
+     */
+    private RateLimitFilter.Config rateLimitConfig(String routeId) {
+        return new RateLimitFilter.Config()
+                .setRouteId(routeId)
+                .setRouteCapacity(rateLimitProperty(routeId, "route-capacity", Long.class, 0L))
+                .setRouteRefillPerSecond(rateLimitProperty(routeId, "route-refill-per-second", Double.class, 0d))
+                .setPrincipalCapacity(rateLimitProperty(routeId, "principal-capacity", Long.class, 0L))
+                .setPrincipalRefillPerSecond(rateLimitProperty(routeId, "principal-refill-per-second", Double.class, 0d));
+    }
+
+    /**
+     * Applied last on every route, so that only requests that actually go upstream (not cache hits or
+     * coalesced duplicates) take a concurrency permit and feed the latency samples.
+     * Settings come from {@code gateway.upstream.<routeId>.*}, falling back to {@code gateway.upstream.default.*}.
+     */
+    private GatewayFilterSpec upstreamProtection(GatewayFilterSpec f, String routeId) {
+        return f.filter(upstreamProtectionFilter.apply(new UpstreamProtectionFilter.Config()
+                .setRouteId(routeId)
+                .setInitialLimit(routeProperty(UPSTREAM_PREFIX, routeId, "limit.initial", Integer.class, 20))
+                .setMinLimit(routeProperty(UPSTREAM_PREFIX, routeId, "limit.min", Integer.class, 5))
+                .setMaxLimit(routeProperty(UPSTREAM_PREFIX, routeId, "limit.max", Integer.class, 500))
+                .setRttTolerance(routeProperty(UPSTREAM_PREFIX, routeId, "limit.rtt-tolerance", Double.class, 1.5))
+                .setSmoothing(routeProperty(UPSTREAM_PREFIX, routeId, "limit.smoothing", Double.class, 0.2))
+                .setLongWindow(routeProperty(UPSTREAM_PREFIX, routeId, "limit.long-window", Integer.class, 600))
+                .setBreakerWindowSize(routeProperty(UPSTREAM_PREFIX, routeId, "circuit-breaker.window-size", Integer.class, 50))
+                .setBreakerFailureRate(routeProperty(UPSTREAM_PREFIX, routeId, "circuit-breaker.failure-rate", Double.class, 0.5))
+                .setBreakerOpenDuration(routeProperty(UPSTREAM_PREFIX, routeId, "circuit-breaker.open-duration",
+                        Duration.class, Duration.ofSeconds(10)))
+                .setBreakerHalfOpenCalls(routeProperty(UPSTREAM_PREFIX, routeId, "circuit-breaker.half-open-calls",
+                        Integer.class, 5))));
+    }
+
+    private <T> T rateLimitProperty(String routeId, String name, Class<T> type, T defaultValue) {
+        return routeProperty(RATE_LIMIT_PREFIX, routeId, name, type, defaultValue);
+    }
+
+    private <T> T routeProperty(String prefix, String routeId, String name, Class<T> type, T defaultValue) {
+        T fallback = env.getProperty(prefix + "default." + name, type, defaultValue);
+        return env.getProperty(prefix + routeId + "." + name, type, fallback);
+    }
+}
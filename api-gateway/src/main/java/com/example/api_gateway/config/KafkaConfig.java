@@ -0,0 +1,38 @@
+package com.example.api_gateway.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+import com.example.api_gateway.event.ProductChangeConsumer;
+import com.example.api_gateway.event.TokenRevokedConsumer;
+
+/**
+ * Configuration class for the Kafka topics the gateway listens to. They are produced by other
+ * services, but the gateway assigns itself their partitions at startup and cannot wait for the
+ * producer to create them.
+ */
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * @return The product-changed topic definition, published by product-service
+     */
+    @Bean
+    public NewTopic productChangedTopic() {
+        return TopicBuilder.name(ProductChangeConsumer.TOPIC)
+                .partitions(3)
+                .build();
+    }
+
+    /**
+     * @return The token-revoked topic definition, published by auth-service
+     */
+    @Bean
+    public NewTopic tokenRevokedTopic() {
+        return TopicBuilder.name(TokenRevokedConsumer.TOPIC)
+                .partitions(3)
+                .build();
+    }
+}
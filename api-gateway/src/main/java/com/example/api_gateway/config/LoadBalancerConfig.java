@@ -0,0 +1,37 @@
+package com.example.api_gateway.config;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.example.api_gateway.loadbalancer.InstanceLatencyStats;
+import com.example.api_gateway.loadbalancer.LatencyAwareLoadBalancer;
+
+/**
+ * Makes every {@code lb://} route resolve its instances through Eureka and pick them with the
+ * {@link LatencyAwareLoadBalancer} instead of the default round robin.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LoadBalancerConfig.LatencyAwareConfiguration.class)
+public class LoadBalancerConfig {
+
+    /**
+     * Loaded into the child context of each load-balanced service, so it is deliberately not a
+     * {@code @Configuration} picked up by component scanning.
+     */
+    static class LatencyAwareConfiguration {
+
+        @Bean
+        public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                LoadBalancerClientFactory loadBalancerClientFactory, InstanceLatencyStats stats) {
+            String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+            return new LatencyAwareLoadBalancer(serviceId,
+                    loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), stats);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.api_gateway.event;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import com.example.api_gateway.cache.ResponseCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Invalidates cached product responses when product-service reports a change.
+ * <p>
+ * Every gateway replica has to see every event, so each one assigns itself every partition (see
+ * {@link PartitionFinder}) and only reads events published after it started.
+ * </p>
+ */
+@Component
+public class ProductChangeConsumer implements ConsumerSeekAware {
+
+    public static final String TOPIC = "product-changed";
+    private static final String PRODUCTS_PATH = "/products";
+    /** Product ids are generated UUIDs, anything else below /products is a collection resource. */
+    private static final Pattern PRODUCT_ID = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    private final ResponseCache cache;
+    private final ObjectMapper objectMapper;
+
+    public ProductChangeConsumer(ResponseCache cache, ObjectMapper objectMapper) {
+        this.cache = cache;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(groupId = "api-gateway-product-changes",
+            topicPartitions = @org.springframework.kafka.annotation.TopicPartition(topic = TOPIC, partitions = "#{@partitionFinder.partitions('" + TOPIC + "')}"))
+    public void consume(String messageJson) {
+        try {
+            JsonNode event = objectMapper.readTree(messageJson);
+            String productId = event.path("productId").asText(null);
+            cache.invalidate(key -> isAffected(key, productId));
+        } catch (Exception e) {
+            // Unreadable event: drop everything under /products rather than serve stale data
+            cache.invalidate(key -> isAffected(key, null));
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        // Responses cached from now on are fresh, older events need not be replayed
+        callback.seekToEnd(assignments.keySet());
+    }
+
+    /**
+     * A change to one product affects that product's own resource and every other product response
+     * (listings, searches, ...), only other products' single-item responses stay valid.
+     */
+    static boolean isAffected(String key, String productId) {
+        if (!key.equals(PRODUCTS_PATH) && !key.startsWith(PRODUCTS_PATH + "/") && !key.startsWith(PRODUCTS_PATH + "?")) {
+            return false;
+        }
+        if (productId == null || !key.startsWith(PRODUCTS_PATH + "/")) {
+            return true;
+        }
+        String rest = key.substring(PRODUCTS_PATH.length() + 1);
+        return !PRODUCT_ID.matcher(rest).matches() || rest.equals(productId);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.api_gateway.event;
+
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import com.example.api_gateway.util.TokenRevocationList;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Feeds the {@link TokenRevocationList} from auth-service's revocation events.
+ * <p>
+ * Every gateway replica needs every revocation, so each one assigns itself every partition (see
+ * {@link PartitionFinder}) and reads the topic from the beginning, a restarted replica thereby learns
+ * the revocations of tokens that are still valid; the expired ones are skipped.
+ * </p>
+ */
+@Component
+public class TokenRevokedConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevokedConsumer.class);
+    public static final String TOPIC = "token-revoked";
+
+    private final TokenRevocationList revocationList;
+    private final ObjectMapper objectMapper;
+
+    public TokenRevokedConsumer(TokenRevocationList revocationList, ObjectMapper objectMapper) {
+        this.revocationList = revocationList;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(groupId = "api-gateway-revocations",
+            topicPartitions = @org.springframework.kafka.annotation.TopicPartition(topic = TOPIC, partitions = "#{@partitionFinder.partitions('" + TOPIC + "')}"))
+    public void consume(String messageJson) {
+        try {
+            JsonNode event = objectMapper.readTree(messageJson);
+            revocationList.revoke(event.path("tokenId").asText(null), event.path("expiresAtMillis").asLong());
+        } catch (Exception e) {
+            log.error("Dropping unreadable token revocation: {}", messageJson, e);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        // Committed offsets are shared between replicas, always replay the still relevant history
+        callback.seekToBeginning(assignments.keySet());
+    }
+}
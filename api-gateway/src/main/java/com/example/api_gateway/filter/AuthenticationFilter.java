@@ -1,20 +1,38 @@
 package com.example.api_gateway.filter;
 
+import com.example.api_gateway.metrics.RequestTimings;
 import com.example.api_gateway.util.JwtUtil;
+import com.example.api_gateway.util.TokenRevocationList;
+import com.example.api_gateway.util.VerifiedToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class AuthenticationFilter extends AbstractGatewayFilterFactory<AuthenticationFilter.Config> {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthenticationFilter.class);
+
     public static final String AUTHORIZATION_HEADER = HttpHeaders.AUTHORIZATION;
     public static final String BEARER_PREFIX = "Bearer ";
+    /** Exchange attribute holding the subject of the validated JWT, used by later filters. */
+    public static final String AUTHENTICATED_SUBJECT_ATTR = AuthenticationFilter.class.getName() + ".subject";
 
     @Autowired
     private RouteValidator validator;
@@ -22,19 +40,52 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** Rejections are logged at most once per interval, a flood of bad tokens must not flood the log too. */
+    @Value("${gateway.auth.reject-log-interval:10s}")
+    private Duration rejectLogInterval;
+
+    private Counter missingHeaderRejected;
+    private Counter invalidTokenRejected;
+    private Counter revokedTokenRejected;
+    private final AtomicLong lastRejectLogNanos = new AtomicLong(System.nanoTime() - Long.MAX_VALUE / 2);
+    private final LongAdder suppressedRejectLogs = new LongAdder();
+
     public AuthenticationFilter() {
         super(Config.class);
     }
 
+    @PostConstruct
+    void registerMeters() {
+        missingHeaderRejected = Counter.builder("gateway.auth.rejected")
+                .description("Requests to secured endpoints rejected with 401")
+                .tag("reason", "missing-header")
+                .register(meterRegistry);
+        invalidTokenRejected = Counter.builder("gateway.auth.rejected")
+                .description("Requests to secured endpoints rejected with 401")
+                .tag("reason", "invalid-token")
+                .register(meterRegistry);
+        revokedTokenRejected = Counter.builder("gateway.auth.rejected")
+                .description("Requests to secured endpoints rejected with 401")
+                .tag("reason", "revoked-token")
+                .register(meterRegistry);
+    }
+
     @Override
     public GatewayFilter apply(Config config) {
         return ((exchange, chain) -> {
+            long start = System.nanoTime();
             // Check if the endpoint is secured or not
             if (validator.isSecured.test(exchange.getRequest())) {
                 // Check if the request contains the Authorization header
                 if (!exchange.getRequest().getHeaders().containsKey(AUTHORIZATION_HEADER)) {
-                    exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-                    return exchange.getResponse().setComplete();
+                    missingHeaderRejected.increment();
+                    return reject(exchange, start, "missing Authorization header", null);
                 }
 
                 String authHeader = Objects.requireNonNull(exchange.getRequest().getHeaders().get(AUTHORIZATION_HEADER)).get(0);
@@ -43,19 +94,54 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
                 }
                 try {
                     // Validate the JWT
-                    jwtUtil.validateToken(authHeader);
+                    VerifiedToken verified = jwtUtil.validateToken(authHeader);
+                    // Answered in memory, revocations are pushed to the gateway by auth-service
+                    if (revocationList.isRevoked(verified)) {
+                        revokedTokenRejected.increment();
+                        return reject(exchange, start, "revoked token", null);
+                    }
+                    if (verified.subject() != null) {
+                        exchange.getAttributes().put(AUTHENTICATED_SUBJECT_ATTR, verified.subject());
+                    }
 
                 } catch (Exception e) {
-                    System.out.println("Invalid access...!");
-                    exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-                    return exchange.getResponse().setComplete();
+                    invalidTokenRejected.increment();
+                    return reject(exchange, start, "invalid token", e);
                 }
             }
+            recordAuthTime(exchange, start);
             return chain.filter(exchange);
         });
     }
 
+    private Mono<Void> reject(ServerWebExchange exchange, long start, String reason, Exception cause) {
+        recordAuthTime(exchange, start);
+        logRejection(exchange, reason, cause);
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
+
+    private static void recordAuthTime(ServerWebExchange exchange, long start) {
+        RequestTimings timings = exchange.getAttribute(RequestTimings.ATTR);
+        if (timings != null) {
+            timings.recordAuth(System.nanoTime() - start);
+        }
+    }
+
+    private void logRejection(ServerWebExchange exchange, String reason, Exception cause) {
+        long now = System.nanoTime();
+        long last = lastRejectLogNanos.get();
+        if (now - last < rejectLogInterval.toNanos() || !lastRejectLogNanos.compareAndSet(last, now)) {
+            suppressedRejectLogs.increment();
+            return;
+        }
+        long suppressed = suppressedRejectLogs.sumThenReset();
+        log.warn("Rejected {} {}: {}{} ({} similar rejections not logged since the last message)",
+                exchange.getRequest().getMethod(), exchange.getRequest().getPath().value(), reason,
+                cause != null ? " (" + cause.getMessage() + ")" : "", suppressed);
+    }
+
     public static class Config {
         // Put configuration properties here
     }
-}
\ No newline at end of file
+}
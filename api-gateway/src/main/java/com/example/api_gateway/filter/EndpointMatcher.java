@@ -0,0 +1,164 @@
+package com.example.api_gateway.filter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Matches request paths and methods against a fixed set of endpoint rules, compiled once into a
+ * segment trie.
+ * <p>
+ * A rule has the form {@code [METHOD[|METHOD...] ]/path/pattern}, for example {@code POST /auth/token}
+ * or {@code GET|HEAD /products/**}. Without a method the rule applies to every method. Segments are
+ * compared exactly, {@code *} matches exactly one segment and a trailing {@code **} matches any
+ * number of remaining segments, including none.
+ * </p>
+ * <p>
+ * Matching walks the path in place and compares segments with {@link String#regionMatches}, so it
+ * does not allocate on the request path.
+ * </p>
+ */
+public final class EndpointMatcher {
+
+    private static final String[] METHODS = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE"};
+    private static final int ALL_METHODS = -1;
+    /** Bit used for request methods outside {@link #METHODS}, only rules without a method match them. */
+    private static final int OTHER_METHOD = 1 << 31;
+
+    private final Node root = new Node();
+
+    private EndpointMatcher() {
+    }
+
+    /**
+     * Compiles the given rules, blank entries are ignored.
+     * @throws IllegalArgumentException if a rule is malformed.
+     */
+    public static EndpointMatcher compile(List<String> rules) {
+        EndpointMatcher matcher = new EndpointMatcher();
+        for (String rule : rules) {
+            if (rule != null && !rule.isBlank()) {
+                matcher.add(rule.trim());
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * @param method the request method name, e.g. {@code GET}.
+     * @param path   the raw request path.
+     * @return true if one of the rules matches the method and path.
+     */
+    public boolean matches(String method, String path) {
+        int bit = methodBit(method);
+        return match(root, path, 0, bit == 0 ? OTHER_METHOD : bit);
+    }
+
+    private static boolean match(Node node, String path, int pos, int bit) {
+        if ((node.catchAllMethods & bit) != 0) {
+            return true;
+        }
+        // Skip the separator(s) in front of the next segment
+        int len = path.length();
+        while (pos < len && path.charAt(pos) == '/') {
+            pos++;
+        }
+        if (pos == len) {
+            return (node.methods & bit) != 0;
+        }
+        int end = path.indexOf('/', pos);
+        if (end < 0) {
+            end = len;
+        }
+        // Exact segments take precedence, fall back to a '*' rule if the exact branch does not match
+        Node literal = node.literal(path, pos, end - pos);
+        if (literal != null && match(literal, path, end, bit)) {
+            return true;
+        }
+        return node.wildcard != null && match(node.wildcard, path, end, bit);
+    }
+
+    private void add(String rule) {
+        int methods = ALL_METHODS;
+        String pattern = rule;
+        int space = rule.indexOf(' ');
+        if (space > 0) {
+            methods = 0;
+            for (String method : rule.substring(0, space).split("\\|")) {
+                int bit = methodBit(method.toUpperCase(Locale.ROOT));
+                if (bit == 0) {
+                    throw new IllegalArgumentException("Unknown HTTP method in endpoint rule: " + rule);
+                }
+                methods |= bit;
+            }
+            pattern = rule.substring(space + 1).trim();
+        }
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Endpoint pattern must start with '/': " + rule);
+        }
+
+        Node node = root;
+        String[] segments = Arrays.stream(pattern.split("/")).filter(s -> !s.isEmpty()).toArray(String[]::new);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.equals("**")) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' is only supported as the last segment: " + rule);
+                }
+                node.catchAllMethods |= methods;
+                return;
+            }
+            node = segment.equals("*") ? node.wildcardChild() : node.literalChild(segment);
+        }
+        node.methods |= methods;
+    }
+
+    private static int methodBit(String method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return 1 << i;
+            }
+        }
+        return 0;
+    }
+
+    private static final class Node {
+        private String[] labels = new String[0];
+        private Node[] children = new Node[0];
+        private Node wildcard;
+        /** Methods for which the path ending at this node matches. */
+        private int methods;
+        /** Methods for which any path below this node matches. */
+        private int catchAllMethods;
+
+        private Node literal(String path, int offset, int length) {
+            for (int i = 0; i < labels.length; i++) {
+                String label = labels[i];
+                if (label.length() == length && path.regionMatches(offset, label, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node literalChild(String label) {
+            Node existing = literal(label, 0, label.length());
+            if (existing != null) {
+                return existing;
+            }
+            Node child = new Node();
+            labels = Arrays.copyOf(labels, labels.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            labels[labels.length - 1] = label;
+            children[children.length - 1] = child;
+            return child;
+        }
+
+        private Node wildcardChild() {
+            if (wildcard == null) {
+                wildcard = new Node();
+            }
+            return wildcard;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.api_gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.api_gateway.metrics.GatewayLatencyMetrics;
+import com.example.api_gateway.metrics.RequestTimings;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs first on every routed request and records its total, auth and upstream time once it completes.
+ * The phases are filled in by {@link AuthenticationFilter} and {@link UpstreamTimingFilter}.
+ */
+@Component
+public class LatencyRecordingFilter implements GlobalFilter, Ordered {
+
+    private final GatewayLatencyMetrics metrics;
+
+    public LatencyRecordingFilter(GatewayLatencyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RequestTimings timings = RequestTimings.start(System.nanoTime());
+        exchange.getAttributes().put(RequestTimings.ATTR, timings);
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                    String routeId = route != null ? route.getId() : "unknown";
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    int code = status != null ? status.value() : 0;
+                    metrics.record(routeId, code, GatewayLatencyMetrics.Phase.TOTAL, System.nanoTime() - timings.startNanos());
+                    metrics.record(routeId, code, GatewayLatencyMetrics.Phase.AUTH, timings.authNanos());
+                    metrics.record(routeId, code, GatewayLatencyMetrics.Phase.UPSTREAM, timings.upstreamNanos());
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.api_gateway.filter;
+
+import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.api_gateway.util.TokenBucket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Rejects requests with 429 once a route or a single caller exceeds its token bucket.
+ * <p>
+ * Every route gets one shared bucket plus one bucket per principal, the JWT subject set by
+ * {@link AuthenticationFilter} or the client address for anonymous requests. Buckets live in this
+ * process, so each gateway replica enforces its own share of the limit.
+ * </p>
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${gateway.rate-limit.max-principals:100000}")
+    private int maxPrincipals;
+
+    public RateLimitFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        final TokenBucket routeBucket = config.getRouteCapacity() > 0
+                ? new TokenBucket(config.getRouteCapacity(), config.getRouteRefillPerSecond())
+                : null;
+        final Map<String, TokenBucket> principalBuckets = new ConcurrentHashMap<>();
+        final AtomicBoolean sweeping = new AtomicBoolean();
+
+        final Counter routeRejected = Counter.builder("gateway.ratelimit.rejected")
+                .tag("route", config.getRouteId()).tag("scope", "route")
+                .register(meterRegistry);
+        final Counter principalRejected = Counter.builder("gateway.ratelimit.rejected")
+                .tag("route", config.getRouteId()).tag("scope", "principal")
+                .register(meterRegistry);
+        if (routeBucket != null) {
+            Gauge.builder("gateway.ratelimit.route.tokens", routeBucket, b -> b.availableTokens(System.nanoTime()))
+                    .description("Tokens currently left in the route bucket")
+                    .tag("route", config.getRouteId())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("gateway.ratelimit.principals", principalBuckets, Map::size)
+                .description("Principals currently tracked by the route's rate limiter")
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+
+        return ((exchange, chain) -> {
+            long now = System.nanoTime();
+
+            TokenBucket bucket = null;
+            if (config.getPrincipalCapacity() > 0) {
+                bucket = principalBucket(principalBuckets, sweeping, principal(exchange), config, now);
+                long wait = bucket != null ? bucket.tryAcquire(now) : 0;
+                if (wait > 0) {
+                    principalRejected.increment();
+                    return reject(exchange, wait);
+                }
+            }
+            if (routeBucket != null) {
+                long wait = routeBucket.tryAcquire(now);
+                if (wait > 0) {
+                    // The request never reaches the route, it must not count against the caller
+                    if (bucket != null) {
+                        bucket.refund();
+                    }
+                    routeRejected.increment();
+                    return reject(exchange, wait);
+                }
+            }
+            return chain.filter(exchange);
+        });
+    }
+
+    /**
+     * Looks up or creates the bucket of a principal. When the table is full, buckets that have
+     * refilled completely are dropped first, they carry no state. If it is still full the principal
+     * is only subject to the route limit.
+     */
+    private TokenBucket principalBucket(Map<String, TokenBucket> buckets, AtomicBoolean sweeping,
+            String principal, Config config, long now) {
+        TokenBucket bucket = buckets.get(principal);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxPrincipals && sweeping.compareAndSet(false, true)) {
+            try {
+                Iterator<TokenBucket> it = buckets.values().iterator();
+                while (it.hasNext()) {
+                    if (it.next().isFull(now)) {
+                        it.remove();
+                    }
+                }
+            } finally {
+                sweeping.set(false);
+            }
+        }
+        if (buckets.size() >= maxPrincipals) {
+            return null;
+        }
+        return buckets.computeIfAbsent(principal,
+                p -> new TokenBucket(config.getPrincipalCapacity(), config.getPrincipalRefillPerSecond()));
+    }
+
+    private static String principal(ServerWebExchange exchange) {
+        String subject = exchange.getAttribute(AuthenticationFilter.AUTHENTICATED_SUBJECT_ATTR);
+        if (subject != null) {
+            return subject;
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        return remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : "anonymous";
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, long waitNanos) {
+        long retryAfterSeconds = Math.max(1L, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return exchange.getResponse().setComplete();
+    }
+
+    public static class Config {
+        private String routeId = "default";
+        /** Burst size of the bucket shared by all callers of the route, 0 disables it. */
+        private long routeCapacity;
+        private double routeRefillPerSecond;
+        /** Burst size of each caller's bucket, 0 disables per-principal limiting. */
+        private long principalCapacity;
+        private double principalRefillPerSecond;
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public Config setRouteId(String routeId) {
+            this.routeId = routeId;
+            return this;
+        }
+
+        public long getRouteCapacity() {
+            return routeCapacity;
+        }
+
+        public Config setRouteCapacity(long routeCapacity) {
+            this.routeCapacity = routeCapacity;
+            return this;
+        }
+
+        public double getRouteRefillPerSecond() {
+            return routeRefillPerSecond;
+        }
+
+        public Config setRouteRefillPerSecond(double routeRefillPerSecond) {
+            this.routeRefillPerSecond = routeRefillPerSecond;
+            return this;
+        }
+
+        public long getPrincipalCapacity() {
+            return principalCapacity;
+        }
+
+        public Config setPrincipalCapacity(long principalCapacity) {
+            this.principalCapacity = principalCapacity;
+            return this;
+        }
+
+        public double getPrincipalRefillPerSecond() {
+            return principalRefillPerSecond;
+        }
+
+        public Config setPrincipalRefillPerSecond(double principalRefillPerSecond) {
+            this.principalRefillPerSecond = principalRefillPerSecond;
+            return this;
+        }
+    }
+}
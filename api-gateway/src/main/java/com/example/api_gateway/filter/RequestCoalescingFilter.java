@@ -0,0 +1,139 @@
+package com.example.api_gateway.filter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.example.api_gateway.cache.CachedResponse;
+import com.example.api_gateway.cache.CapturingResponseDecorator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Collapses identical concurrent GET requests of a route into a single upstream call.
+ * <p>
+ * The first request for a path and query becomes the leader and goes upstream. Requests for the
+ * same key arriving while it is in flight wait up to {@code maxWait} for the leader's response and
+ * are answered with a copy of it. If the leader fails, times out or its response cannot be shared
+ * (see {@link CapturingResponseDecorator}), the waiters go upstream themselves.
+ * Opt-in per route, only for responses that do not depend on the caller.
+ * </p>
+ */
+@Component
+public class RequestCoalescingFilter extends AbstractGatewayFilterFactory<RequestCoalescingFilter.Config> {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${gateway.response-cache.max-body-size:256KB}")
+    private DataSize maxBodySize;
+
+    public RequestCoalescingFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+        final Duration maxWait = config.getMaxWait();
+        final int maxBodyBytes = (int) Math.min(Integer.MAX_VALUE, maxBodySize.toBytes());
+
+        final Counter collapsed = Counter.builder("gateway.coalescing.collapsed")
+                .description("Requests answered with the response of an identical in-flight request")
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+        final Counter fallbacks = Counter.builder("gateway.coalescing.fallbacks")
+                .description("Waiting requests that had to go upstream themselves")
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+        final Counter timeouts = Counter.builder("gateway.coalescing.timeouts")
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.in-flight", inFlight, Map::size)
+                .description("Distinct requests currently in flight upstream with waiters attached")
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+
+        return ((exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            final String key = ResponseCacheFilter.cacheKey(exchange.getRequest());
+            final Sinks.One<CachedResponse> sink = Sinks.one();
+            final Sinks.One<CachedResponse> leader = inFlight.putIfAbsent(key, sink);
+
+            if (leader != null) {
+                return leader.asMono()
+                        .timeout(maxWait)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .onErrorResume(TimeoutException.class, e -> {
+                            timeouts.increment();
+                            return Mono.just(Optional.empty());
+                        })
+                        .flatMap(shared -> {
+                            if (shared.isPresent()) {
+                                collapsed.increment();
+                                return shared.get().writeTo(exchange, "COALESCED");
+                            }
+                            fallbacks.increment();
+                            return chain.filter(exchange);
+                        });
+            }
+
+            CapturingResponseDecorator capturing = new CapturingResponseDecorator(exchange.getResponse(), maxBodyBytes,
+                    captured -> {
+                        inFlight.remove(key, sink);
+                        sink.tryEmitValue(captured);
+                    },
+                    () -> {
+                        inFlight.remove(key, sink);
+                        sink.tryEmitEmpty();
+                    });
+            return chain.filter(exchange.mutate().response(capturing).build())
+                    .doFinally(signal -> {
+                        // Release the waiters if the leader failed or was cancelled before writing
+                        if (inFlight.remove(key, sink)) {
+                            sink.tryEmitEmpty();
+                        }
+                    });
+        });
+    }
+
+    public static class Config {
+        private String routeId = "default";
+        /** How long a duplicate request waits for the in-flight one before going upstream itself. */
+        private Duration maxWait = Duration.ofSeconds(2);
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public Config setRouteId(String routeId) {
+            this.routeId = routeId;
+            return this;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public Config setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+            return this;
+        }
+    }
+}
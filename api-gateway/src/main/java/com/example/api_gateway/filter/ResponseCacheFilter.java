@@ -0,0 +1,90 @@
+package com.example.api_gateway.filter;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.example.api_gateway.cache.CachedResponse;
+import com.example.api_gateway.cache.CapturingResponseDecorator;
+import com.example.api_gateway.cache.ResponseCache;
+
+/**
+ * Serves repeated GET requests of a route from the gateway's {@link ResponseCache}.
+ * <p>
+ * Responses are sent with an {@code ETag}, and hits with 304 Not Modified when the client already
+ * holds that version. Misses go upstream and successful responses are stored for the route's TTL.
+ * Opt-in per route, only for responses that do not depend on the caller.
+ * </p>
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private final ResponseCache cache;
+
+    @Value("${gateway.response-cache.max-body-size:256KB}")
+    private DataSize maxBodySize;
+
+    public ResponseCacheFilter(ResponseCache cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        final long ttlNanos = config.getTtl().toNanos();
+        final int maxBodyBytes = (int) Math.min(Integer.MAX_VALUE, maxBodySize.toBytes());
+
+        return ((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            String key = cacheKey(request);
+
+            CachedResponse cached = cache.get(key);
+            if (cached != null) {
+                if (cached.matches(request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+                    cache.recordNotModified();
+                }
+                return cached.writeTo(exchange, "HIT");
+            }
+
+            // Taken before going upstream, so a response that an invalidation may have made stale is not stored
+            final long generation = cache.generation();
+            exchange.getResponse().getHeaders().set(CachedResponse.CACHE_STATUS_HEADER, "MISS");
+            CapturingResponseDecorator capturing = new CapturingResponseDecorator(exchange.getResponse(), maxBodyBytes,
+                    captured -> cache.put(key, captured, ttlNanos, generation), () -> {});
+            return chain.filter(exchange.mutate().response(capturing).build());
+        });
+    }
+
+    /**
+     * Cache key of a request: the raw path plus the raw query string, if any.
+     */
+    public static String cacheKey(ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String path = request.getPath().value();
+        return query == null ? path : path + "?" + query;
+    }
+
+    public static class Config {
+        /** How long a response of this route stays cached. */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public Config setTtl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.api_gateway.filter;
 import java.util.List;
 import java.util.function.Predicate;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 
@@ -10,18 +11,26 @@ import org.springframework.stereotype.Component;
 public class RouteValidator {
 
     /**
-     * List of endpoints that are considered "open" and do not require authentication.
+     * Endpoints that are considered "open" and do not require authentication, compiled at startup.
+     * Configured through {@code gateway.security.open-endpoints}, see {@link EndpointMatcher} for the rule syntax.
      */
-    public static final List<String> openApiEndpoints = List.of(
-            "/auth/token"
-    );
+    private final EndpointMatcher openEndpoints;
+
+    public RouteValidator(@Value("${gateway.security.open-endpoints}") List<String> openApiEndpoints) {
+        this.openEndpoints = EndpointMatcher.compile(openApiEndpoints);
+    }
 
     /**
      * A predicate that tests if a given request is for a secured endpoint.
-     * It returns true if the request URI is NOT in the openApiEndpoints list.
+     * It returns true if the request method and path do NOT match one of the open endpoint rules.
      */
     public Predicate<ServerHttpRequest> isSecured =
-            request -> openApiEndpoints
-                    .stream()
-                    .noneMatch(uri -> request.getURI().getPath().contains(uri));
-}
\ No newline at end of file
+            request -> !isOpen(request.getMethod().name(), request.getPath().value());
+
+    /**
+     * @return true if the given method and path do not require authentication.
+     */
+    public boolean isOpen(String method, String path) {
+        return openEndpoints.matches(method, path);
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.api_gateway.filter;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.api_gateway.util.CircuitBreaker;
+import com.example.api_gateway.util.GradientLimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Protects an upstream from more load than it can currently handle.
+ * <p>
+ * Requests first pass a per-route {@link CircuitBreaker}, which fast-fails while the upstream keeps
+ * failing, then an adaptive {@link GradientLimit} on the number of concurrent requests, which
+ * shrinks as the upstream's latency rises. Both reject with 503 and a Retry-After header instead of
+ * queueing, so a slow service does not hold gateway connections and drag other routes down with it.
+ * Errors and 5xx responses count as failures, only successful calls feed the latency samples.
+ * </p>
+ */
+@Component
+public class UpstreamProtectionFilter extends AbstractGatewayFilterFactory<UpstreamProtectionFilter.Config> {
+
+    private final MeterRegistry meterRegistry;
+
+    public UpstreamProtectionFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        final GradientLimit limit = new GradientLimit(config.getInitialLimit(), config.getMinLimit(),
+                config.getMaxLimit(), config.getRttTolerance(), config.getSmoothing(), config.getLongWindow());
+        final CircuitBreaker breaker = new CircuitBreaker(config.getBreakerWindowSize(),
+                config.getBreakerFailureRate(), config.getBreakerOpenDuration().toNanos(),
+                config.getBreakerHalfOpenCalls());
+
+        final Counter limitRejected = Counter.builder("gateway.upstream.rejected")
+                .tag("route", config.getRouteId()).tag("reason", "concurrency-limit")
+                .register(meterRegistry);
+        final Counter breakerRejected = Counter.builder("gateway.upstream.rejected")
+                .tag("route", config.getRouteId()).tag("reason", "circuit-open")
+                .register(meterRegistry);
+        Gauge.builder("gateway.upstream.concurrency.limit", limit, GradientLimit::getLimit)
+                .description("Current adaptive concurrency limit of the route")
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+        Gauge.builder("gateway.upstream.concurrency.in-flight", limit, GradientLimit::getInFlight)
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+        Gauge.builder("gateway.upstream.circuit.state", breaker, b -> b.getState().ordinal())
+                .description("Circuit breaker state of the route: 0 closed, 1 half-open, 2 open")
+                .tag("route", config.getRouteId())
+                .register(meterRegistry);
+
+        return ((exchange, chain) -> {
+            final long start = System.nanoTime();
+            if (!breaker.tryAcquire(start)) {
+                breakerRejected.increment();
+                return reject(exchange, breaker.remainingOpenNanos(start));
+            }
+            if (!limit.tryAcquire()) {
+                // The breaker permit was not used, do not let it count as a trial call
+                breaker.onIgnored();
+                limitRejected.increment();
+                return reject(exchange, TimeUnit.SECONDS.toNanos(1));
+            }
+            return chain.filter(exchange)
+                    .doFinally(signal -> {
+                        long now = System.nanoTime();
+                        if (signal == SignalType.CANCEL) {
+                            limit.release(-1);
+                            breaker.onIgnored();
+                        } else if (signal == SignalType.ON_ERROR || isServerError(exchange)) {
+                            limit.release(-1);
+                            breaker.onFailure(now);
+                        } else {
+                            limit.release(now - start);
+                            breaker.onSuccess(now);
+                        }
+                    });
+        });
+    }
+
+    private static boolean isServerError(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && status.is5xxServerError();
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, long waitNanos) {
+        long retryAfterSeconds = Math.max(1L, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return exchange.getResponse().setComplete();
+    }
+
+    public static class Config {
+        private String routeId = "default";
+        /** Concurrency limit before the first latency samples. */
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 500;
+        /** How much slower than its long-term average the upstream may get before the limit shrinks. */
+        private double rttTolerance = 1.5;
+        private double smoothing = 0.2;
+        /** Number of samples the long-term latency average spans. */
+        private int longWindow = 600;
+        /** Number of calls the breaker's failure rate is computed over. */
+        private int breakerWindowSize = 50;
+        private double breakerFailureRate = 0.5;
+        private Duration breakerOpenDuration = Duration.ofSeconds(10);
+        /** Trial calls that must succeed before a half-open breaker closes. */
+        private int breakerHalfOpenCalls = 5;
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public Config setRouteId(String routeId) {
+            this.routeId = routeId;
+            return this;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public Config setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public Config setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public Config setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        public double getRttTolerance() {
+            return rttTolerance;
+        }
+
+        public Config setRttTolerance(double rttTolerance) {
+            this.rttTolerance = rttTolerance;
+            return this;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public Config setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        public int getLongWindow() {
+            return longWindow;
+        }
+
+        public Config setLongWindow(int longWindow) {
+            this.longWindow = longWindow;
+            return this;
+        }
+
+        public int getBreakerWindowSize() {
+            return breakerWindowSize;
+        }
+
+        public Config setBreakerWindowSize(int breakerWindowSize) {
+            this.breakerWindowSize = breakerWindowSize;
+            return this;
+        }
+
+        public double getBreakerFailureRate() {
+            return breakerFailureRate;
+        }
+
+        public Config setBreakerFailureRate(double breakerFailureRate) {
+            this.breakerFailureRate = breakerFailureRate;
+            return this;
+        }
+
+        public Duration getBreakerOpenDuration() {
+            return breakerOpenDuration;
+        }
+
+        public Config setBreakerOpenDuration(Duration breakerOpenDuration) {
+            this.breakerOpenDuration = breakerOpenDuration;
+            return this;
+        }
+
+        public int getBreakerHalfOpenCalls() {
+            return breakerHalfOpenCalls;
+        }
+
+        public Config setBreakerHalfOpenCalls(int breakerHalfOpenCalls) {
+            this.breakerHalfOpenCalls = breakerHalfOpenCalls;
+            return this;
+        }
+    }
+}
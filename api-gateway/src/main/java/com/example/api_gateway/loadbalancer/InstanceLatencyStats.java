@@ -0,0 +1,235 @@
+package com.example.api_gateway.loadbalancer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tracks the observed latency, in-flight requests and failures of every upstream instance.
+ * <p>
+ * Registered as a {@link LoadBalancerLifecycle}, so the gateway's load balancer filter reports the
+ * start and the outcome of every proxied request. Latency is kept as a peak-sensitive EWMA: a slower
+ * sample replaces the average immediately, faster samples pull it down over {@code decay}.
+ * Instances with consecutive failures are ejected for a while. Stats of instances that left the
+ * registry are dropped together with their meters by {@link #retain}.
+ * </p>
+ */
+@Component
+public class InstanceLatencyStats implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final Map<String, InstanceStats> instances = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Value("${gateway.loadbalancer.decay:10s}")
+    private Duration decay;
+
+    @Value("${gateway.loadbalancer.initial-latency:100ms}")
+    private Duration initialLatency;
+
+    @Value("${gateway.loadbalancer.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${gateway.loadbalancer.ejection-time:10s}")
+    private Duration ejectionTime;
+
+    public InstanceLatencyStats(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return the expected cost of sending one more request to the instance, lower is better.
+     */
+    public double cost(ServiceInstance instance, long nowNanos) {
+        InstanceStats stats = stats(instance);
+        if (stats.isEjected(nowNanos)) {
+            return Double.MAX_VALUE;
+        }
+        double latency = stats.samples.sum() == 0 ? initialLatency.toNanos() : stats.ewmaNanos(nowNanos, decay.toNanos());
+        return latency * (stats.inFlight.get() + 1);
+    }
+
+    /**
+     * @return true while the instance is ejected after consecutive failures.
+     */
+    public boolean isEjected(ServiceInstance instance, long nowNanos) {
+        InstanceStats stats = instances.get(key(instance));
+        return stats != null && stats.isEjected(nowNanos);
+    }
+
+    /**
+     * Forgets the instances of a service that are no longer in its current instance list, and
+     * removes their meters.
+     */
+    public void retain(String serviceId, Collection<ServiceInstance> current) {
+        String prefix = serviceId + "/";
+        Set<String> keys = current.stream().map(InstanceLatencyStats::key).collect(Collectors.toSet());
+        instances.entrySet().removeIf(entry -> {
+            if (!entry.getKey().startsWith(prefix) || keys.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().meters.forEach(meterRegistry::remove);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+        // Nothing to record before an instance has been chosen
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        ((TimedRequestContext) request.getContext()).setRequestStartTime(System.nanoTime());
+        stats(lbResponse.getServer()).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        long startNanos = ((TimedRequestContext) completionContext.getLoadBalancerRequest().getContext()).getRequestStartTime();
+        if (startNanos == 0) {
+            return;
+        }
+        // Requests still running when their instance left the registry are not recorded
+        InstanceStats stats = instances.get(key(lbResponse.getServer()));
+        if (stats == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        stats.inFlight.decrementAndGet();
+        stats.record(now - startNanos, now, decay.toNanos());
+
+        if (isFailure(completionContext)) {
+            stats.failures.increment();
+            if (stats.consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                stats.ejectedUntilNanos = now + ejectionTime.toNanos();
+                stats.consecutiveFailures.set(0);
+            }
+        } else {
+            stats.consecutiveFailures.set(0);
+        }
+    }
+
+    private static boolean isFailure(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> context) {
+        if (context.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        ResponseData response = context.getClientResponse();
+        HttpStatusCode status = response != null ? response.getHttpStatus() : null;
+        return status != null && status.is5xxServerError();
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        String key = key(instance);
+        InstanceStats stats = instances.get(key);
+        return stats != null ? stats : instances.computeIfAbsent(key, k -> register(instance, new InstanceStats()));
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    /**
+     * Exposes the per-instance stats, e.g. under /actuator/metrics/gateway.lb.instance.latency.
+     */
+    private InstanceStats register(ServiceInstance instance, InstanceStats stats) {
+        String service = String.valueOf(instance.getServiceId());
+        String address = instance.getHost() + ":" + instance.getPort();
+        stats.meters = List.of(
+                Gauge.builder("gateway.lb.instance.latency", stats, s -> s.ewmaNanos(System.nanoTime(), decay.toNanos()) / 1_000_000d)
+                        .description("Peak EWMA latency of the instance in milliseconds")
+                        .tags("service", service, "instance", address)
+                        .register(meterRegistry),
+                Gauge.builder("gateway.lb.instance.in-flight", stats, s -> s.inFlight.get())
+                        .tags("service", service, "instance", address)
+                        .register(meterRegistry),
+                Gauge.builder("gateway.lb.instance.ejected", stats, s -> s.isEjected(System.nanoTime()) ? 1 : 0)
+                        .tags("service", service, "instance", address)
+                        .register(meterRegistry),
+                FunctionCounter.builder("gateway.lb.instance.requests", stats.samples, LongAdder::sum)
+                        .tags("service", service, "instance", address)
+                        .register(meterRegistry),
+                FunctionCounter.builder("gateway.lb.instance.failures", stats.failures, LongAdder::sum)
+                        .tags("service", service, "instance", address)
+                        .register(meterRegistry));
+        return stats;
+    }
+
+    private static final class InstanceStats {
+        private final AtomicLong ewmaBits = new AtomicLong(Double.doubleToRawLongBits(0d));
+        private final AtomicLong lastSampleNanos = new AtomicLong(System.nanoTime());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final LongAdder samples = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        /** Zero while the instance was never ejected. */
+        private volatile long ejectedUntilNanos;
+        private List<Meter> meters = List.of();
+
+        private boolean isEjected(long nowNanos) {
+            long until = ejectedUntilNanos;
+            return until != 0 && until - nowNanos > 0;
+        }
+
+        private void record(long rttNanos, long nowNanos, long decayNanos) {
+            samples.increment();
+            long previousSample = lastSampleNanos.getAndSet(nowNanos);
+            double weight = Math.exp(-(double) Math.max(0L, nowNanos - previousSample) / decayNanos);
+            while (true) {
+                long bits = ewmaBits.get();
+                double ewma = Double.longBitsToDouble(bits);
+                double updated = rttNanos > ewma ? rttNanos : ewma * weight + rttNanos * (1d - weight);
+                if (ewmaBits.compareAndSet(bits, Double.doubleToRawLongBits(updated))) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * The average decays towards zero while no samples arrive, so an instance that was slow
+         * once gets probed again eventually.
+         */
+        private double ewmaNanos(long nowNanos, long decayNanos) {
+            double ewma = Double.longBitsToDouble(ewmaBits.get());
+            long idle = Math.max(0L, nowNanos - lastSampleNanos.get());
+            return ewma * Math.exp(-(double) idle / decayNanos);
+        }
+    }
+}
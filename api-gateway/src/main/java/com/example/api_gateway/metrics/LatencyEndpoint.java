@@ -0,0 +1,73 @@
+package com.example.api_gateway.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Actuator endpoint ({@code /actuator/latency}) summarising {@link GatewayLatencyMetrics}:
+ * count, mean, max and percentiles in milliseconds, per route, phase and status.
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final GatewayLatencyMetrics metrics;
+
+    public LatencyEndpoint(GatewayLatencyMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> latency() {
+        Map<String, Object> result = new TreeMap<>();
+        metrics.routes().forEach((routeId, timers) -> result.put(routeId, summarise(timers)));
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> routeLatency(@Selector String route) {
+        GatewayLatencyMetrics.RouteTimers timers = metrics.routes().get(route);
+        return timers != null ? summarise(timers) : Map.of();
+    }
+
+    private static Map<String, Object> summarise(GatewayLatencyMetrics.RouteTimers timers) {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (GatewayLatencyMetrics.Phase phase : GatewayLatencyMetrics.Phase.values()) {
+            AtomicReferenceArray<Timer> byStatus = timers.byPhase[phase.ordinal()];
+            Map<String, Object> statuses = new TreeMap<>();
+            for (int slot = 0; slot < byStatus.length(); slot++) {
+                Timer timer = byStatus.get(slot);
+                if (timer != null) {
+                    statuses.put(slot == 0 ? "UNKNOWN" : Integer.toString(slot), summarise(timer.takeSnapshot()));
+                }
+            }
+            if (!statuses.isEmpty()) {
+                phases.put(phase.tag, statuses);
+            }
+        }
+        return phases;
+    }
+
+    private static Map<String, Object> summarise(HistogramSnapshot snapshot) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", snapshot.count());
+        summary.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+        summary.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            summary.put("p" + Math.round(percentile.percentile() * 100) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return summary;
+    }
+}
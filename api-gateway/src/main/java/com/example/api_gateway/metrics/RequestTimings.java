@@ -0,0 +1,43 @@
+package com.example.api_gateway.metrics;
+
+/**
+ * Phase durations of one request through the gateway, kept as an exchange attribute.
+ * Only the filters of that request write to it, one after the other, so plain fields are enough.
+ * A duration of -1 means the phase did not run.
+ */
+public final class RequestTimings {
+
+    public static final String ATTR = RequestTimings.class.getName();
+
+    private final long startNanos;
+    private long authNanos = -1;
+    private long upstreamNanos = -1;
+
+    private RequestTimings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    public static RequestTimings start(long nowNanos) {
+        return new RequestTimings(nowNanos);
+    }
+
+    public void recordAuth(long durationNanos) {
+        this.authNanos = durationNanos;
+    }
+
+    public void recordUpstream(long durationNanos) {
+        this.upstreamNanos = durationNanos;
+    }
+
+    public long startNanos() {
+        return startNanos;
+    }
+
+    public long authNanos() {
+        return authNanos;
+    }
+
+    public long upstreamNanos() {
+        return upstreamNanos;
+    }
+}
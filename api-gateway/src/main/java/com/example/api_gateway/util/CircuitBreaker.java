@@ -0,0 +1,129 @@
+package com.example.api_gateway.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Count-based circuit breaker.
+ * <p>
+ * While CLOSED, outcomes are counted in tumbling windows of {@code windowSize} calls. A window whose
+ * failure rate reaches the threshold opens the breaker, calls are then refused for {@code openNanos}.
+ * Afterwards the breaker is HALF_OPEN and lets {@code halfOpenCalls} trial calls through: if all of
+ * them succeed it closes again, the first failure opens it for another period.
+ * </p>
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int windowSize;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicLong openedAtNanos = new AtomicLong();
+    /** Calls and failures of the current window, packed as calls << 32 | failures so both move together. */
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger trialPermits = new AtomicInteger();
+    private final AtomicInteger trialSuccesses = new AtomicInteger();
+
+    /**
+     * @param windowSize            the number of calls the failure rate is computed over.
+     * @param failureRateThreshold  the failure rate, in (0, 1], at which the breaker opens.
+     * @param openNanos             how long the breaker stays open before allowing trial calls.
+     * @param halfOpenCalls         the number of trial calls that must succeed to close it again.
+     */
+    public CircuitBreaker(int windowSize, double failureRateThreshold, long openNanos, int halfOpenCalls) {
+        if (windowSize < 1 || failureRateThreshold <= 0 || failureRateThreshold > 1 || openNanos < 0
+                || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings");
+        }
+        this.windowSize = windowSize;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * @return true if a call may go through. Every permitted call must report its outcome with
+     *         {@link #onSuccess} or {@link #onFailure}, or hand back a trial permit with {@link #onIgnored}.
+     */
+    public boolean tryAcquire(long nowNanos) {
+        State current = state.get();
+        if (current == State.OPEN) {
+            if (nowNanos - openedAtNanos.get() < openNanos) {
+                return false;
+            }
+            if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                trialSuccesses.set(0);
+                trialPermits.set(halfOpenCalls);
+            }
+            current = state.get();
+        }
+        if (current == State.HALF_OPEN) {
+            return trialPermits.getAndUpdate(p -> p > 0 ? p - 1 : 0) > 0;
+        }
+        return current == State.CLOSED;
+    }
+
+    public void onSuccess(long nowNanos) {
+        State current = state.get();
+        if (current == State.HALF_OPEN) {
+            if (trialSuccesses.incrementAndGet() >= halfOpenCalls && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+                window.set(0);
+            }
+        } else if (current == State.CLOSED) {
+            record(0, nowNanos);
+        }
+    }
+
+    public void onFailure(long nowNanos) {
+        State current = state.get();
+        if (current == State.HALF_OPEN) {
+            open(State.HALF_OPEN, nowNanos);
+        } else if (current == State.CLOSED) {
+            record(1, nowNanos);
+        }
+    }
+
+    /**
+     * Reports a permitted call whose outcome says nothing about the upstream, e.g. a cancelled request.
+     */
+    public void onIgnored() {
+        if (state.get() == State.HALF_OPEN) {
+            trialPermits.incrementAndGet();
+        }
+    }
+
+    private void record(int failure, long nowNanos) {
+        long updated = window.addAndGet((1L << 32) | failure);
+        long calls = updated >>> 32;
+        if (calls < windowSize) {
+            return;
+        }
+        // Only the call that manages to reset the full window evaluates it
+        if (window.compareAndSet(updated, 0) && (double) (int) updated / calls >= failureRateThreshold) {
+            open(State.CLOSED, nowNanos);
+        }
+    }
+
+    private void open(State from, long nowNanos) {
+        openedAtNanos.set(nowNanos);
+        state.compareAndSet(from, State.OPEN);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * @return the nanoseconds until the breaker lets trial calls through, 0 if it is not open.
+     */
+    public long remainingOpenNanos(long nowNanos) {
+        return state.get() == State.OPEN ? Math.max(0L, openNanos - (nowNanos - openedAtNanos.get())) : 0L;
+    }
+}
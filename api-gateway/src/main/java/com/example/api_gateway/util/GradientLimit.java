@@ -0,0 +1,106 @@
+package com.example.api_gateway.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit driven by observed round-trip times.
+ * <p>
+ * Follows the gradient approach: a long-term RTT average stands for the upstream's healthy latency,
+ * every new sample is compared against it. While samples stay within {@code rttTolerance} of the
+ * long-term average the limit grows by a small queue allowance, once they drift above it the limit
+ * shrinks proportionally to the ratio. Samples taken while less than half of the limit is in use say
+ * nothing about capacity and are ignored.
+ * </p>
+ * Acquiring a permit is a CAS on the in-flight counter, only samples take the monitor.
+ */
+public final class GradientLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double longRttFactor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double longRttNanos;
+
+    /**
+     * @param initialLimit  the limit used before any sample has been taken.
+     * @param minLimit      the limit never drops below this, so a slow upstream still gets traffic to recover with.
+     * @param maxLimit      the limit never grows above this.
+     * @param rttTolerance  how much slower than the long-term average a sample may be before the limit shrinks, e.g. 1.5.
+     * @param smoothing     weight of a new limit estimate against the current limit, in (0, 1].
+     * @param longWindow    number of samples the long-term RTT average spans.
+     */
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double rttTolerance, double smoothing,
+            int longWindow) {
+        if (minLimit < 1 || maxLimit < minLimit || rttTolerance < 1 || smoothing <= 0 || smoothing > 1
+                || longWindow < 1) {
+            throw new IllegalArgumentException("Invalid gradient limit settings");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.longRttFactor = 2d / (longWindow + 1);
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Takes a permit if fewer requests than the current limit are in flight.
+     * Every successful call must be followed by exactly one {@link #release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a permit.
+     * @param rttNanos    the round-trip time of the request, or a negative value if it should not be sampled
+     *                    (cancelled, or failed before reaching the upstream).
+     */
+    public void release(long rttNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        if (rttNanos > 0) {
+            onSample(rttNanos, inFlightAtCompletion);
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtCompletion) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            return;
+        }
+        longRttNanos += (rttNanos - longRttNanos) * longRttFactor;
+        // Upstream recovered from a period of high latency, let the baseline catch up faster
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        if (inFlightAtCompletion < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+        double estimate = current * gradient + Math.sqrt(current);
+        double next = current * (1 - smoothing) + estimate * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
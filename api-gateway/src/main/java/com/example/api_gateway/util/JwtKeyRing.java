@@ -0,0 +1,141 @@
+package com.example.api_gateway.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.crypto.SecretKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * The HMAC keys tokens are verified with, indexed by key id ({@code kid}). Shares its key format
+ * and configuration with auth-service, which signs with the same ring.
+ * <p>
+ * Keys are read from {@code jwt.keys.location}, a file, classpath or http(s) resource in JWKS form:
+ * {@code {"keys": [{"kty": "oct", "kid": "2026-10", "k": "<base64url key>"}, ...]}}. All listed keys
+ * verify, auth-service signs with the first one. A key should stay listed until the tokens it signed
+ * have expired. The resource is re-read every
+ * {@code jwt.keys.refresh-interval}, no restart needed.
+ * </p>
+ * The key of {@code jwt.secret} is kept as well and verifies tokens without a {@code kid}.
+ * Keys are built once per load, a lookup is one map access.
+ */
+@Component
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private record KeySet(Map<String, SecretKey> byKid, String signingKid, SecretKey signingKey) {}
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final String location;
+    private final SecretKey legacyKey;
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    private volatile KeySet keys;
+    private String loadedContent;
+
+    public JwtKeyRing(ResourceLoader resourceLoader, ObjectMapper objectMapper,
+            @Value("${jwt.keys.location:}") String location,
+            @Value("${jwt.secret:}") String legacySecret) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.location = location;
+        this.legacyKey = legacySecret.isBlank() ? null : Keys.hmacShaKeyFor(Decoders.BASE64.decode(legacySecret));
+        if (location.isBlank()) {
+            if (legacyKey == null) {
+                throw new IllegalStateException("No JWT keys configured, set jwt.keys.location or jwt.secret");
+            }
+            this.keys = new KeySet(Map.of(), null, legacyKey);
+        } else {
+            reload();
+        }
+    }
+
+    /**
+     * Re-reads the key resource. A resource that cannot be read or parsed keeps the current keys,
+     * except at startup.
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.refresh-interval:PT5M}", initialDelayString = "${jwt.keys.refresh-interval:PT5M}")
+    public synchronized void reload() {
+        if (location.isBlank()) {
+            return;
+        }
+        try {
+            String content = resourceLoader.getResource(location).getContentAsString(StandardCharsets.UTF_8);
+            if (content.equals(loadedContent)) {
+                return;
+            }
+            KeySet loaded = parse(content);
+            keys = loaded;
+            loadedContent = content;
+            log.info("Loaded JWT keys {} from {}, signing with '{}'", loaded.byKid().keySet(), location, loaded.signingKid());
+            changeListeners.forEach(Runnable::run);
+        } catch (Exception e) {
+            if (keys == null) {
+                throw new IllegalStateException("Could not load JWT keys from " + location, e);
+            }
+            log.error("Could not reload JWT keys from {}, keeping the current ones", location, e);
+        }
+    }
+
+    /**
+     * Registers a callback run after the keys changed, e.g. to drop results verified with a removed key.
+     */
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        Key key = kid != null ? keys.byKid().get(kid) : legacyKey;
+        if (key == null) {
+            throw new io.jsonwebtoken.security.SecurityException(
+                    kid != null ? "Unknown signing key id '" + kid + "'" : "Token has no key id");
+        }
+        return key;
+    }
+
+    private KeySet parse(String content) throws Exception {
+        JsonNode jwks = objectMapper.readTree(content);
+        Map<String, SecretKey> byKid = new HashMap<>();
+        String signingKid = null;
+        for (JsonNode jwk : jwks.path("keys")) {
+            if (!"oct".equals(jwk.path("kty").asText()) || (jwk.has("use") && !"sig".equals(jwk.path("use").asText()))) {
+                continue;
+            }
+            String kid = jwk.path("kid").asText(null);
+            String k = jwk.path("k").asText(null);
+            if (kid == null || k == null) {
+                throw new IllegalArgumentException("Every key needs a 'kid' and a 'k'");
+            }
+            byKid.put(kid, Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(k)));
+            if (signingKid == null) {
+                signingKid = kid;
+            }
+        }
+        if (signingKid == null) {
+            throw new IllegalArgumentException("No usable signing key in " + location);
+        }
+        return new KeySet(Map.copyOf(byKid), signingKid, byKid.get(signingKid));
+    }
+}
@@ -1,33 +1,164 @@
 package com.example.api_gateway.util;
 
-import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
 
 @Component
-public class JwtUtil {
+public class JwtUtil implements MeterBinder {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private final JwtKeyRing keyRing;
+    private JwtParser parser;
+
+    /**
+     * Tokens that already passed signature verification, keyed by the SHA-256 digest of the token.
+     */
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public JwtUtil(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    /**
+     * Builds the parser once, it is immutable and thread-safe and picks the key of each token by its
+     * {@code kid} from the key ring. Verified tokens are forgotten when the keys change, a removed
+     * key must not keep its tokens alive.
+     */
+    @PostConstruct
+    void init() {
+        parser = Jwts.parser()
+                .keyLocator(keyRing)
+                .build();
+        keyRing.addChangeListener(verifiedTokens::clear);
+    }
 
     /**
      * Validates a JWT. Throws an exception if the token is invalid.
+     * <p>
+     * Tokens that were verified before and have not expired yet are answered from an in-memory cache,
+     * so a client repeating the same bearer token does not pay for parsing and the HMAC check again.
+     * </p>
      * @param token The JWT string to validate.
+     * @return the verified subject, expiry and id of the token.
      */
-    public void validateToken(final String token) {
-        Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token);
+    public VerifiedToken validateToken(final String token) {
+        final String key = digest(token);
+        final long now = System.currentTimeMillis();
+
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > now) {
+                hits.increment();
+                return cached;
+            }
+            if (verifiedTokens.remove(key, cached)) {
+                evictions.increment();
+            }
+        }
+        misses.increment();
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(), expiration != null ? expiration.getTime() : Long.MAX_VALUE, claims.getId());
+
+        // Tokens without an expiry are never cached, they could otherwise stay in memory forever
+        if (expiration != null && cacheMaxSize > 0) {
+            if (verifiedTokens.size() >= cacheMaxSize) {
+                makeRoom(now);
+            }
+            if (verifiedTokens.size() < cacheMaxSize) {
+                verifiedTokens.put(key, verified);
+            }
+        }
+        return verified;
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Drops expired entries and, if the cache is still full, arbitrary live ones until a tenth of
+     * the capacity is free again. Only one thread sweeps at a time, the others skip caching.
+     */
+    private void makeRoom(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int target = cacheMaxSize - Math.max(1, cacheMaxSize / 10);
+            Iterator<VerifiedToken> it = verifiedTokens.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().expiresAtMillis() <= now) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+            it = verifiedTokens.values().iterator();
+            while (verifiedTokens.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static String digest(String token) {
+        MessageDigest md = SHA_256.get();
+        byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * Exposes the verified-token cache counters, e.g. under /actuator/metrics/gateway.jwt.cache.hits.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("gateway.jwt.cache.hits", hits, LongAdder::sum)
+                .description("Tokens answered from the verified-token cache")
+                .register(registry);
+        FunctionCounter.builder("gateway.jwt.cache.misses", misses, LongAdder::sum)
+                .description("Tokens that had to be parsed and verified")
+                .register(registry);
+        FunctionCounter.builder("gateway.jwt.cache.evictions", evictions, LongAdder::sum)
+                .description("Entries dropped because they expired or the cache was full")
+                .register(registry);
+        Gauge.builder("gateway.jwt.cache.size", verifiedTokens, Map::size)
+                .description("Tokens currently held in the verified-token cache")
+                .register(registry);
     }
-}
\ No newline at end of file
+}
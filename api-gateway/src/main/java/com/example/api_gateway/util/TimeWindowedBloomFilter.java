@@ -0,0 +1,170 @@
+package com.example.api_gateway.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter for keys that are only relevant until a known expiry time.
+ * <p>
+ * Time is divided into windows and every window has its own bit set, a key is stored in the window
+ * its expiry falls into. Once a window has passed, all of its keys have expired and its bits are
+ * reused for a future window, so the filter never fills up over time. A lookup touches a single
+ * window, i.e. {@code hashes} bit probes and no allocation.
+ * </p>
+ * Lookups are lock-free, {@link #add} is synchronized; it is meant for a low write rate.
+ */
+public final class TimeWindowedBloomFilter {
+
+    private final long windowMillis;
+    private final int bitsPerWindow;
+    private final int hashes;
+    private final Window[] windows;
+
+    private static final class Window {
+        volatile long index = Long.MIN_VALUE;
+        final AtomicLongArray bits;
+        final LongAdder bitsSet = new LongAdder();
+        final LongAdder keys = new LongAdder();
+
+        Window(int bitCount) {
+            this.bits = new AtomicLongArray((bitCount + 63) >>> 6);
+        }
+    }
+
+    /**
+     * @param windowMillis       the length of one window.
+     * @param horizonMillis      the furthest expiry ahead of now that can be stored.
+     * @param expectedPerWindow  the number of keys a window is sized for.
+     * @param falsePositiveRate  the target false positive rate at that number of keys.
+     */
+    public TimeWindowedBloomFilter(long windowMillis, long horizonMillis, int expectedPerWindow, double falsePositiveRate) {
+        if (windowMillis <= 0 || horizonMillis <= 0 || expectedPerWindow < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter settings");
+        }
+        this.windowMillis = windowMillis;
+        double ln2 = Math.log(2);
+        this.bitsPerWindow = (int) Math.max(64, Math.ceil(-expectedPerWindow * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        this.hashes = (int) Math.max(1, Math.round((double) bitsPerWindow / expectedPerWindow * ln2));
+        // One window more than the horizon spans, the current one is partially in the past
+        int windowCount = (int) ((horizonMillis + windowMillis - 1) / windowMillis) + 1;
+        this.windows = new Window[windowCount];
+        for (int i = 0; i < windowCount; i++) {
+            windows[i] = new Window(bitsPerWindow);
+        }
+    }
+
+    /**
+     * @return false if the key expires beyond the horizon and was not stored.
+     */
+    public synchronized boolean add(CharSequence key, long expiresAtMillis, long nowMillis) {
+        if (!isWithinHorizon(expiresAtMillis, nowMillis)) {
+            return false;
+        }
+        long index = Math.floorDiv(expiresAtMillis, windowMillis);
+        Window window = windows[slot(index)];
+        if (window.index != index) {
+            // Every key of the window previously in this slot has expired, reuse it
+            for (int i = 0; i < window.bits.length(); i++) {
+                window.bits.set(i, 0L);
+            }
+            window.bitsSet.reset();
+            window.keys.reset();
+            window.index = index;
+        }
+        long h1 = hash1(key);
+        long h2 = hash2(h1);
+        for (int i = 0; i < hashes; i++) {
+            int bit = bit(h1 + i * h2);
+            long mask = 1L << bit;
+            long previous = window.bits.getAndUpdate(bit >>> 6, word -> word | mask);
+            if ((previous & mask) == 0) {
+                window.bitsSet.increment();
+            }
+        }
+        window.keys.increment();
+        return true;
+    }
+
+    /**
+     * @return false if the key is definitely not stored, true if it may be.
+     */
+    public boolean mightContain(CharSequence key, long expiresAtMillis) {
+        long index = Math.floorDiv(expiresAtMillis, windowMillis);
+        Window window = windows[slot(index)];
+        if (window.index != index) {
+            return false;
+        }
+        long h1 = hash1(key);
+        long h2 = hash2(h1);
+        for (int i = 0; i < hashes; i++) {
+            int bit = bit(h1 + i * h2);
+            if ((window.bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isWithinHorizon(long expiresAtMillis, long nowMillis) {
+        long index = Math.floorDiv(expiresAtMillis, windowMillis);
+        return index - Math.floorDiv(nowMillis, windowMillis) < windows.length;
+    }
+
+    /**
+     * @return the keys stored in windows that have not passed yet.
+     */
+    public long size(long nowMillis) {
+        long current = Math.floorDiv(nowMillis, windowMillis);
+        long size = 0;
+        for (Window window : windows) {
+            if (window.index >= current) {
+                size += window.keys.sum();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the highest expected false positive rate among the live windows, from their fill ratio.
+     */
+    public double expectedFalsePositiveRate(long nowMillis) {
+        long current = Math.floorDiv(nowMillis, windowMillis);
+        double worst = 0;
+        for (Window window : windows) {
+            if (window.index >= current) {
+                worst = Math.max(worst, Math.pow((double) window.bitsSet.sum() / bitsPerWindow, hashes));
+            }
+        }
+        return worst;
+    }
+
+    public long memoryBytes() {
+        return (long) windows.length * ((bitsPerWindow + 63) >>> 6) * Long.BYTES;
+    }
+
+    private int slot(long index) {
+        return (int) Math.floorMod(index, (long) windows.length);
+    }
+
+    private int bit(long hash) {
+        return (int) Math.floorMod(hash, (long) bitsPerWindow);
+    }
+
+    /** 64-bit FNV-1a over the chars of the key. */
+    private static long hash1(CharSequence key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /** Second, independent hash derived with the SplitMix64 finalizer; forced odd so it never degenerates. */
+    private static long hash2(long h1) {
+        long z = h1 + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return (z ^ (z >>> 31)) | 1L;
+    }
+}
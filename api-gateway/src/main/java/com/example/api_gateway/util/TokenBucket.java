@@ -0,0 +1,80 @@
+package com.example.api_gateway.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * The bucket is kept in its GCRA form: a single "theoretical arrival time" that moves forward by one
+ * refill interval per granted token. A request is allowed while that time is no further ahead of now
+ * than the bucket capacity, so acquiring a token is one CAS on one {@link AtomicLong}.
+ * </p>
+ */
+public final class TokenBucket {
+
+    private final long capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param capacity         the maximum number of tokens, i.e. the allowed burst.
+     * @param refillPerSecond  the number of tokens added per second.
+     */
+    public TokenBucket(long capacity, double refillPerSecond) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Token bucket needs a positive capacity and refill rate");
+        }
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+        this.burstNanos = capacity * intervalNanos;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes one token if available.
+     * @param nowNanos the current {@link System#nanoTime()}.
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire(long)}, for a request that was turned away by a
+     * later check and never used it.
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * @return the number of tokens currently available.
+     */
+    public double availableTokens(long nowNanos) {
+        long debt = Math.max(0L, theoreticalArrival.get() - nowNanos);
+        return Math.max(0d, (double) (burstNanos - debt) / intervalNanos);
+    }
+
+    /**
+     * @return true if the bucket has refilled completely, it is then indistinguishable from a new one.
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() - nowNanos <= 0;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.api_gateway.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Ids ({@code jti}) of access tokens revoked before their expiry, as announced by auth-service.
+ * <p>
+ * Nearly every token checked is not revoked, so lookups go through a {@link TimeWindowedBloomFilter}
+ * first, which answers that case with a few bit probes. Only a positive answer is confirmed against
+ * the exact set, which also removes the filter's false positives. Revocations are forgotten once the
+ * token has expired, it is then rejected for that reason anyway.
+ * </p>
+ */
+@Component
+public class TokenRevocationList implements MeterBinder {
+
+    private final TimeWindowedBloomFilter bloomFilter;
+    /** Every live revocation, token id to expiry in epoch milliseconds. */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    /** Revocations of tokens expiring beyond the Bloom filter's horizon, always checked exactly. */
+    private final Map<String, Long> beyondHorizon = new ConcurrentHashMap<>();
+    private final long purgeIntervalMillis;
+    private final AtomicLong lastPurgeMillis = new AtomicLong();
+
+    private final LongAdder bloomPositives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public TokenRevocationList(
+            @Value("${gateway.revocation.window:5m}") Duration window,
+            @Value("${gateway.revocation.max-token-lifetime:1h}") Duration maxTokenLifetime,
+            @Value("${gateway.revocation.expected-per-window:10000}") int expectedPerWindow,
+            @Value("${gateway.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.bloomFilter = new TimeWindowedBloomFilter(window.toMillis(), maxTokenLifetime.toMillis(),
+                expectedPerWindow, falsePositiveRate);
+        this.purgeIntervalMillis = window.toMillis();
+    }
+
+    public void revoke(String tokenId, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        if (tokenId == null || expiresAtMillis <= now) {
+            return;
+        }
+        revoked.put(tokenId, expiresAtMillis);
+        if (!bloomFilter.add(tokenId, expiresAtMillis, now)) {
+            beyondHorizon.put(tokenId, expiresAtMillis);
+        }
+        purgeExpired(now);
+    }
+
+    /**
+     * @return true if the token has been revoked. Tokens without an id cannot be revoked.
+     */
+    public boolean isRevoked(VerifiedToken token) {
+        String tokenId = token.tokenId();
+        if (tokenId == null) {
+            return false;
+        }
+        if (!beyondHorizon.isEmpty() && beyondHorizon.containsKey(tokenId)) {
+            return true;
+        }
+        if (!bloomFilter.mightContain(tokenId, token.expiresAtMillis())) {
+            return false;
+        }
+        bloomPositives.increment();
+        if (revoked.containsKey(tokenId)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Drops revocations of expired tokens, at most once per window. The Bloom filter ages out on its own.
+     */
+    private void purgeExpired(long now) {
+        long last = lastPurgeMillis.get();
+        if (now - last < purgeIntervalMillis || !lastPurgeMillis.compareAndSet(last, now)) {
+            return;
+        }
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        beyondHorizon.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    /**
+     * Exposes the revocation list, e.g. under /actuator/metrics/gateway.revocation.size.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("gateway.revocation.size", revoked, Map::size)
+                .description("Revoked tokens currently tracked (exact set)")
+                .register(registry);
+        Gauge.builder("gateway.revocation.bloom.size", bloomFilter, f -> f.size(System.currentTimeMillis()))
+                .description("Revoked tokens held in the live windows of the Bloom filter")
+                .register(registry);
+        Gauge.builder("gateway.revocation.bloom.memory", bloomFilter, TimeWindowedBloomFilter::memoryBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("gateway.revocation.bloom.expected-fpp", bloomFilter,
+                        f -> f.expectedFalsePositiveRate(System.currentTimeMillis()))
+                .description("Expected false positive rate of the fullest live Bloom filter window")
+                .register(registry);
+        FunctionCounter.builder("gateway.revocation.bloom.positives", bloomPositives, LongAdder::sum)
+                .description("Lookups the Bloom filter could not rule out and the exact set had to answer")
+                .register(registry);
+        FunctionCounter.builder("gateway.revocation.bloom.false-positives", falsePositives, LongAdder::sum)
+                .description("Bloom filter positives for tokens that were not revoked")
+                .register(registry);
+    }
+}
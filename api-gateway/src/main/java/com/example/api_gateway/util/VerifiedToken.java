@@ -0,0 +1,14 @@
+package com.example.api_gateway.util;
+
+/**
+ * The parts of a verified JWT the gateway needs after validation.
+ *
+ * @param subject         the token subject (username)
+ * @param expiresAtMillis the token expiry as epoch milliseconds
+ * @param tokenId         the token id ({@code jti}) used for revocation, null if the token has none
+ */
+public record VerifiedToken(
+        String subject,
+        long expiresAtMillis,
+        String tokenId
+) {}
@@ -0,0 +1,94 @@
+package com.example.api_gateway.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.util.unit.DataSize;
+
+import reactor.core.publisher.Flux;
+
+class ResponseCacheTests {
+
+	private static final long TTL = TimeUnit.MINUTES.toNanos(1);
+
+	@Test
+	void dropsResponseReadBeforeAnInvalidation() {
+		ResponseCache cache = new ResponseCache(100, DataSize.ofKilobytes(10));
+		long generation = cache.generation();
+
+		// The product changes while its response is on the way back from upstream
+		cache.invalidate(key -> key.startsWith("/products"));
+		cache.put("/products/1", response(10), TTL, generation);
+		assertNull(cache.get("/products/1"));
+
+		cache.put("/products/1", response(10), TTL, cache.generation());
+		assertNotNull(cache.get("/products/1"));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedBeyondTotalSize() {
+		ResponseCache cache = new ResponseCache(100, DataSize.ofBytes(250));
+		cache.put("/a", response(100), TTL, cache.generation());
+		cache.put("/b", response(100), TTL, cache.generation());
+		cache.get("/a");
+		cache.put("/c", response(100), TTL, cache.generation());
+
+		assertNotNull(cache.get("/a"));
+		assertNull(cache.get("/b"));
+		assertNotNull(cache.get("/c"));
+		assertEquals(200, cache.bytes());
+
+		// Larger than the whole cache, never stored
+		cache.put("/d", response(300), TTL, cache.generation());
+		assertNull(cache.get("/d"));
+		assertEquals(200, cache.bytes());
+	}
+
+	@Test
+	void sendsEtagOnFirstResponse() {
+		MockServerHttpResponse upstream = new MockServerHttpResponse();
+		upstream.setStatusCode(HttpStatus.OK);
+		CachedResponse[] captured = {null};
+		CapturingResponseDecorator decorator = new CapturingResponseDecorator(upstream, 1024,
+				response -> captured[0] = response, () -> {});
+
+		decorator.writeWith(Flux.just(buffer("{\"id\":"), buffer("1}"))).block();
+
+		assertNotNull(captured[0]);
+		assertEquals(captured[0].etag(), upstream.getHeaders().getETag());
+		assertEquals("{\"id\":1}", upstream.getBodyAsString().block());
+	}
+
+	@Test
+	void streamsOversizedBodyWithoutEtag() {
+		MockServerHttpResponse upstream = new MockServerHttpResponse();
+		upstream.setStatusCode(HttpStatus.OK);
+		boolean[] skipped = {false};
+		CapturingResponseDecorator decorator = new CapturingResponseDecorator(upstream, 4,
+				response -> {}, () -> skipped[0] = true);
+
+		decorator.writeWith(Flux.just(buffer("abc"), buffer("def"), buffer("ghi"))).block();
+
+		assertEquals("abcdefghi", upstream.getBodyAsString().block());
+		assertNull(upstream.getHeaders().getFirst(HttpHeaders.ETAG));
+		assertEquals(true, skipped[0]);
+	}
+
+	private static CachedResponse response(int size) {
+		return CachedResponse.of(HttpStatus.OK, new HttpHeaders(), new byte[size]);
+	}
+
+	private static DataBuffer buffer(String text) {
+		return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+	}
+}
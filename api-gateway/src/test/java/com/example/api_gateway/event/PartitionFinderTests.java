@@ -0,0 +1,67 @@
+package com.example.api_gateway.event;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+class PartitionFinderTests {
+
+	private final KafkaAdmin kafkaAdmin = mock(KafkaAdmin.class);
+	private final NewTopic declared = TopicBuilder.name("product-changed").partitions(2).build();
+	private final PartitionFinder partitionFinder = partitionFinder(declared);
+
+	@Test
+	void createsDeclaredTopicBeforeListingItsPartitions() {
+		when(kafkaAdmin.describeTopics("product-changed")).thenReturn(Map.of("product-changed", description("product-changed", 2)));
+
+		assertArrayEquals(new String[] {"0", "1"}, partitionFinder.partitions("product-changed"));
+		verify(kafkaAdmin).createOrModifyTopics(declared);
+	}
+
+	@Test
+	void failsForTopicWithoutPartitions() {
+		when(kafkaAdmin.describeTopics("token-revoked")).thenReturn(Map.of("token-revoked", description("token-revoked", 0)));
+
+		assertThrows(IllegalStateException.class, () -> partitionFinder.partitions("token-revoked"));
+		verify(kafkaAdmin, never()).createOrModifyTopics(declared);
+	}
+
+	@Test
+	void failsWhenTopicCannotBeDescribed() {
+		when(kafkaAdmin.describeTopics("user-changed")).thenThrow(new KafkaException("Unknown topic"));
+
+		assertThrows(IllegalStateException.class, () -> partitionFinder.partitions("user-changed"));
+	}
+
+	private PartitionFinder partitionFinder(NewTopic... topics) {
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+		for (NewTopic topic : topics) {
+			beanFactory.addBean(topic.name(), topic);
+		}
+		return new PartitionFinder(kafkaAdmin, beanFactory.getBeanProvider(NewTopic.class));
+	}
+
+	private static TopicDescription description(String topic, int partitions) {
+		List<TopicPartitionInfo> infos = new ArrayList<>();
+		for (int i = 0; i < partitions; i++) {
+			infos.add(new TopicPartitionInfo(i, null, List.of(), List.of()));
+		}
+		return new TopicDescription(topic, false, infos);
+	}
+}
@@ -0,0 +1,52 @@
+package com.example.api_gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class EndpointMatcherTests {
+
+	private final EndpointMatcher matcher = EndpointMatcher.compile(List.of(
+			"POST /auth/token",
+			"GET|HEAD /products/**",
+			"/catalogue/*/summary",
+			"/catalogue/featured/items"));
+
+	@Test
+	void matchesExactPathAndMethod() {
+		assertTrue(matcher.matches("POST", "/auth/token"));
+		assertFalse(matcher.matches("GET", "/auth/token"));
+	}
+
+	@Test
+	void doesNotMatchOnSubstring() {
+		assertFalse(matcher.matches("POST", "/products/auth/token-x"));
+		assertFalse(matcher.matches("POST", "/auth/token-x"));
+		assertFalse(matcher.matches("POST", "/auth/token/extra"));
+	}
+
+	@Test
+	void trailingDoubleWildcardMatchesAnyDepth() {
+		assertTrue(matcher.matches("GET", "/products"));
+		assertTrue(matcher.matches("HEAD", "/products/42/reviews"));
+		assertFalse(matcher.matches("POST", "/products/42"));
+	}
+
+	@Test
+	void singleWildcardIsTriedWhenTheLiteralBranchFails() {
+		assertTrue(matcher.matches("GET", "/catalogue/featured/items"));
+		assertTrue(matcher.matches("GET", "/catalogue/featured/summary"));
+		assertFalse(matcher.matches("GET", "/catalogue/featured"));
+	}
+
+	@Test
+	void rejectsMalformedRules() {
+		assertThrows(IllegalArgumentException.class, () -> EndpointMatcher.compile(List.of("FETCH /a")));
+		assertThrows(IllegalArgumentException.class, () -> EndpointMatcher.compile(List.of("/a/**/b")));
+		assertThrows(IllegalArgumentException.class, () -> EndpointMatcher.compile(List.of("a/b")));
+	}
+}
@@ -0,0 +1,105 @@
+package com.example.api_gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.example.api_gateway.cache.CachedResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class RequestCoalescingFilterTests {
+
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+	@Test
+	void concurrentIdenticalGetsShareOneUpstreamCall() {
+		GatewayFilter filter = filter();
+		MockServerWebExchange leader = get("/products/1", "alice");
+		MockServerWebExchange waiter = get("/products/1", "bob");
+		GatewayFilterChain upstream = respond(null);
+
+		Mono.when(filter.filter(leader, upstream), filter.filter(waiter, upstream)).block();
+
+		assertEquals(1, upstreamCalls.get());
+		assertEquals("product /products/1 for alice", leader.getResponse().getBodyAsString().block());
+		assertEquals("product /products/1 for alice", waiter.getResponse().getBodyAsString().block());
+		assertEquals("COALESCED", waiter.getResponse().getHeaders().getFirst(CachedResponse.CACHE_STATUS_HEADER));
+		assertEquals(HttpStatus.OK, waiter.getResponse().getStatusCode());
+	}
+
+	@Test
+	void differentQueriesAreNotShared() {
+		GatewayFilter filter = filter();
+		MockServerWebExchange first = get("/products?page=1", "alice");
+		MockServerWebExchange second = get("/products?page=2", "alice");
+		GatewayFilterChain upstream = respond(null);
+
+		Mono.when(filter.filter(first, upstream), filter.filter(second, upstream)).block();
+
+		assertEquals(2, upstreamCalls.get());
+		assertEquals("product /products?page=2 for alice", second.getResponse().getBodyAsString().block());
+	}
+
+	@Test
+	void callerSpecificResponsesAreNotShared() {
+		GatewayFilter filter = filter();
+		MockServerWebExchange leader = get("/products/1", "alice");
+		MockServerWebExchange waiter = get("/products/1", "bob");
+		// A cookie-setting response belongs to its caller, the waiter has to go upstream itself
+		GatewayFilterChain upstream = respond("session=secret");
+
+		Mono.when(filter.filter(leader, upstream), filter.filter(waiter, upstream)).block();
+
+		assertEquals(2, upstreamCalls.get());
+		assertEquals("product /products/1 for bob", waiter.getResponse().getBodyAsString().block());
+		assertEquals("session=secret-bob", waiter.getResponse().getHeaders().getFirst(HttpHeaders.SET_COOKIE));
+		assertNull(waiter.getResponse().getHeaders().getFirst(CachedResponse.CACHE_STATUS_HEADER));
+	}
+
+	private GatewayFilter filter() {
+		RequestCoalescingFilter factory = new RequestCoalescingFilter(new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(factory, "maxBodySize", DataSize.ofKilobytes(256));
+		return factory.apply(new RequestCoalescingFilter.Config().setMaxWait(Duration.ofSeconds(5)));
+	}
+
+	private static MockServerWebExchange get(String uri, String user) {
+		return MockServerWebExchange.from(MockServerHttpRequest.get(uri).header("X-User", user));
+	}
+
+	/**
+	 * A slow upstream answering with the path and the caller, so a response handed to the wrong
+	 * caller shows in its body.
+	 */
+	private GatewayFilterChain respond(String cookie) {
+		return exchange -> Mono.delay(Duration.ofMillis(200)).then(Mono.defer(() -> write(exchange, cookie)));
+	}
+
+	private Mono<Void> write(ServerWebExchange exchange, String cookie) {
+		upstreamCalls.incrementAndGet();
+		String user = exchange.getRequest().getHeaders().getFirst("X-User");
+		String uri = exchange.getRequest().getURI().getRawPath()
+				+ (exchange.getRequest().getURI().getRawQuery() != null ? "?" + exchange.getRequest().getURI().getRawQuery() : "");
+		exchange.getResponse().setStatusCode(HttpStatus.OK);
+		if (cookie != null) {
+			exchange.getResponse().getHeaders().add(HttpHeaders.SET_COOKIE, cookie + "-" + user);
+		}
+		byte[] body = ("product " + uri + " for " + user).getBytes(StandardCharsets.UTF_8);
+		return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+	}
+}
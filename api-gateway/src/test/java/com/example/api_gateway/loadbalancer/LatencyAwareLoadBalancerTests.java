@@ -0,0 +1,141 @@
+package com.example.api_gateway.loadbalancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+class LatencyAwareLoadBalancerTests {
+
+	private final ServiceInstance a = instance("a");
+	private final ServiceInstance b = instance("b");
+	private final ServiceInstance c = instance("c");
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AtomicReference<List<ServiceInstance>> registered = new AtomicReference<>();
+	private InstanceLatencyStats stats;
+	private LatencyAwareLoadBalancer loadBalancer;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		stats = new InstanceLatencyStats(registry);
+		ReflectionTestUtils.setField(stats, "decay", Duration.ofSeconds(10));
+		ReflectionTestUtils.setField(stats, "initialLatency", Duration.ofMillis(100));
+		ReflectionTestUtils.setField(stats, "failureThreshold", 3);
+		ReflectionTestUtils.setField(stats, "ejectionTime", Duration.ofSeconds(10));
+
+		ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+		when(supplier.get(any(Request.class))).thenAnswer(invocation -> Flux.just(registered.get()));
+		ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable(any())).thenReturn(supplier);
+		loadBalancer = new LatencyAwareLoadBalancer("product-service", provider, stats);
+	}
+
+	@Test
+	void leavesEjectedInstancesOutOfTheDraw() {
+		registered.set(List.of(a, b, c));
+		eject(a);
+		eject(b);
+
+		for (int i = 0; i < 50; i++) {
+			assertEquals(c, choose());
+		}
+	}
+
+	@Test
+	void fallsBackToEjectedInstancesWhenNothingElseIsLeft() {
+		registered.set(List.of(a, b));
+		eject(a);
+		eject(b);
+
+		ServiceInstance chosen = choose();
+		assertTrue(chosen == a || chosen == b);
+	}
+
+	@Test
+	void prefersTheCheaperOfTwoInstances() {
+		registered.set(List.of(a, b));
+		Request<RequestDataContext> busy = start(a);
+		start(a);
+
+		for (int i = 0; i < 20; i++) {
+			assertEquals(b, choose());
+		}
+		complete(busy, a, CompletionContext.Status.SUCCESS);
+	}
+
+	@Test
+	void dropsStatsOfInstancesThatLeftTheRegistry() {
+		registered.set(List.of(a, b));
+		choose();
+		eject(a);
+		assertNotNull(registry.find("gateway.lb.instance.latency").tag("instance", "a:8080").gauge());
+
+		registered.set(List.of(b));
+		assertEquals(b, choose());
+
+		assertNull(registry.find("gateway.lb.instance.latency").tag("instance", "a:8080").gauge());
+		assertNull(registry.find("gateway.lb.instance.failures").tag("instance", "a:8080").functionCounter());
+		assertNotNull(registry.find("gateway.lb.instance.latency").tag("instance", "b:8080").gauge());
+
+		// Back in the registry, the instance starts over instead of staying ejected
+		registered.set(List.of(a, b));
+		choose();
+		assertFalse(stats.isEjected(a, System.nanoTime()));
+	}
+
+	private ServiceInstance choose() {
+		Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>(new RequestDataContext())).block();
+		assertNotNull(response);
+		return response.getServer();
+	}
+
+	private void eject(ServiceInstance instance) {
+		for (int i = 0; i < 3; i++) {
+			complete(start(instance), instance, CompletionContext.Status.FAILED);
+		}
+		assertTrue(stats.isEjected(instance, System.nanoTime()));
+	}
+
+	private Request<RequestDataContext> start(ServiceInstance instance) {
+		Request<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+		stats.onStartRequest(request, new DefaultResponse(instance));
+		return request;
+	}
+
+	private void complete(Request<RequestDataContext> request, ServiceInstance instance, CompletionContext.Status status) {
+		stats.onComplete(new CompletionContext<ResponseData, ServiceInstance, RequestDataContext>(
+				status, null, request, new DefaultResponse(instance)));
+	}
+
+	private static ServiceInstance instance(String host) {
+		return new DefaultServiceInstance(host, "product-service", host, 8080, false);
+	}
+}
@@ -0,0 +1,33 @@
+package com.example.api_gateway.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GatewayLatencyMetricsTests {
+
+	@Test
+	void recordsPerRouteStatusAndPhase() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		GatewayLatencyMetrics metrics = new GatewayLatencyMetrics(registry);
+
+		metrics.record("product-service", 200, GatewayLatencyMetrics.Phase.UPSTREAM, TimeUnit.MILLISECONDS.toNanos(20));
+		metrics.record("product-service", 200, GatewayLatencyMetrics.Phase.UPSTREAM, TimeUnit.MILLISECONDS.toNanos(40));
+		metrics.record("product-service", 999, GatewayLatencyMetrics.Phase.TOTAL, 1);
+		// Phases that did not run are skipped
+		metrics.record("product-service", 401, GatewayLatencyMetrics.Phase.UPSTREAM, -1);
+
+		Timer upstream = registry.find(GatewayLatencyMetrics.METRIC)
+				.tags("route", "product-service", "status", "200", "phase", "upstream").timer();
+		assertEquals(2, upstream.count());
+		assertEquals(60, upstream.totalTime(TimeUnit.MILLISECONDS), 0.001);
+		assertEquals(1, registry.find(GatewayLatencyMetrics.METRIC).tags("status", "UNKNOWN").timer().count());
+		assertNull(registry.find(GatewayLatencyMetrics.METRIC).tags("status", "401").timer());
+	}
+}
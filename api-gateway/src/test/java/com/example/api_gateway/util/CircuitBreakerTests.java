@@ -0,0 +1,52 @@
+package com.example.api_gateway.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTests {
+
+	private static final long OPEN = TimeUnit.SECONDS.toNanos(5);
+
+	@Test
+	void opensOnFailureRateAndClosesAfterSuccessfulTrials() {
+		CircuitBreaker breaker = new CircuitBreaker(4, 0.5, OPEN, 2);
+		long now = System.nanoTime();
+
+		breaker.onSuccess(now);
+		breaker.onSuccess(now);
+		breaker.onFailure(now);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		breaker.onFailure(now);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire(now + 1));
+
+		long later = now + OPEN;
+		assertTrue(breaker.tryAcquire(later));
+		assertTrue(breaker.tryAcquire(later));
+		assertFalse(breaker.tryAcquire(later));
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+		breaker.onSuccess(later);
+		breaker.onSuccess(later);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	void reopensOnFailedTrial() {
+		CircuitBreaker breaker = new CircuitBreaker(1, 1, OPEN, 3);
+		long now = System.nanoTime();
+		breaker.onFailure(now);
+
+		long later = now + OPEN;
+		assertTrue(breaker.tryAcquire(later));
+		breaker.onFailure(later);
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquire(later + 1));
+	}
+}
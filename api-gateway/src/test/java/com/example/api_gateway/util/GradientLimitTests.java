@@ -0,0 +1,54 @@
+package com.example.api_gateway.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class GradientLimitTests {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+	@Test
+	void rejectsOnceLimitIsInFlight() {
+		GradientLimit limit = new GradientLimit(2, 1, 10, 1.5, 0.2, 100);
+
+		assertTrue(limit.tryAcquire());
+		assertTrue(limit.tryAcquire());
+		assertFalse(limit.tryAcquire());
+
+		limit.release(-1);
+		assertEquals(1, limit.getInFlight());
+		assertTrue(limit.tryAcquire());
+	}
+
+	@Test
+	void growsWhileLatencyIsStableAndShrinksWhenItRises() {
+		GradientLimit limit = new GradientLimit(10, 2, 100, 1.5, 0.5, 100);
+		for (int i = 0; i < 50; i++) {
+			saturateAndRelease(limit, FAST);
+		}
+		int grown = limit.getLimit();
+		assertTrue(grown > 10);
+
+		for (int i = 0; i < 20; i++) {
+			saturateAndRelease(limit, SLOW);
+		}
+		assertTrue(limit.getLimit() < grown);
+	}
+
+	private static void saturateAndRelease(GradientLimit limit, long rtt) {
+		int acquired = 0;
+		while (limit.tryAcquire()) {
+			acquired++;
+		}
+		limit.release(rtt);
+		for (int i = 1; i < acquired; i++) {
+			limit.release(-1);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package com.example.api_gateway.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtUtilTests {
+
+	private static final String KEY_A = "a2V5LWEtZm9yLXRlc3RzLW9ubHktMzItYnl0ZXMtbG9uZy1hYWE";
+	private static final String KEY_B = "a2V5LWItZm9yLXRlc3RzLW9ubHktMzItYnl0ZXMtbG9uZy1iYmI";
+
+	@TempDir
+	Path dir;
+
+	private Path jwks;
+	private JwtKeyRing keyRing;
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@BeforeEach
+	void setUp() throws IOException {
+		jwks = dir.resolve("jwt-keys.json");
+		writeKeys("a", KEY_A);
+		keyRing = new JwtKeyRing(new DefaultResourceLoader(), new ObjectMapper(), "file:" + jwks, "");
+	}
+
+	@Test
+	void answersRepeatedTokenFromCache() {
+		JwtUtil jwtUtil = jwtUtil(10);
+		String token = sign("admin", 60_000);
+
+		VerifiedToken first = jwtUtil.validateToken(token);
+		VerifiedToken second = jwtUtil.validateToken(token);
+
+		assertSame(first, second);
+		assertEquals("admin", second.subject());
+		assertEquals(1, count("gateway.jwt.cache.hits"));
+		assertEquals(1, count("gateway.jwt.cache.misses"));
+	}
+
+	@Test
+	void verifiesExpiredEntryAgain() throws InterruptedException {
+		JwtUtil jwtUtil = jwtUtil(10);
+		String token = sign("admin", 1_500);
+
+		VerifiedToken verified = jwtUtil.validateToken(token);
+		Thread.sleep(Math.max(0, verified.expiresAtMillis() - System.currentTimeMillis()) + 50);
+
+		assertThrows(ExpiredJwtException.class, () -> jwtUtil.validateToken(token));
+		assertEquals(0, count("gateway.jwt.cache.hits"));
+		assertEquals(2, count("gateway.jwt.cache.misses"));
+		assertEquals(1, count("gateway.jwt.cache.evictions"));
+		assertEquals(0, size());
+	}
+
+	@Test
+	void makesRoomWhenFull() {
+		JwtUtil jwtUtil = jwtUtil(10);
+		for (int i = 0; i < 10; i++) {
+			jwtUtil.validateToken(sign("user-" + i, 60_000));
+		}
+		assertEquals(10, size());
+
+		String token = sign("user-10", 60_000);
+		jwtUtil.validateToken(token);
+
+		// One tenth of the capacity is freed, then the new token is cached
+		assertEquals(10, size());
+		assertEquals(1, count("gateway.jwt.cache.evictions"));
+		jwtUtil.validateToken(token);
+		assertEquals(1, count("gateway.jwt.cache.hits"));
+	}
+
+	@Test
+	void forgetsVerifiedTokensWhenKeysRotate() throws IOException {
+		JwtUtil jwtUtil = jwtUtil(10);
+		String token = sign("admin", 60_000);
+		VerifiedToken first = jwtUtil.validateToken(token);
+		assertEquals(1, size());
+
+		writeKeys("b", KEY_B, "a", KEY_A);
+		keyRing.reload();
+
+		assertEquals(0, size());
+		assertNotSame(first, jwtUtil.validateToken(token));
+		assertEquals(2, count("gateway.jwt.cache.misses"));
+	}
+
+	@Test
+	void doesNotCacheWhenDisabled() {
+		JwtUtil jwtUtil = jwtUtil(0);
+		String token = sign("admin", 60_000);
+
+		jwtUtil.validateToken(token);
+		jwtUtil.validateToken(token);
+
+		assertEquals(0, size());
+		assertEquals(2, count("gateway.jwt.cache.misses"));
+		assertEquals(0, count("gateway.jwt.cache.hits"));
+	}
+
+	private JwtUtil jwtUtil(int maxSize) {
+		JwtUtil jwtUtil = new JwtUtil(keyRing);
+		ReflectionTestUtils.setField(jwtUtil, "cacheMaxSize", maxSize);
+		jwtUtil.init();
+		jwtUtil.bindTo(registry);
+		return jwtUtil;
+	}
+
+	private double count(String name) {
+		return registry.get(name).functionCounter().count();
+	}
+
+	private double size() {
+		return registry.get("gateway.jwt.cache.size").gauge().value();
+	}
+
+	private static String sign(String subject, long ttlMillis) {
+		return Jwts.builder()
+				.header().keyId("a").and()
+				.subject(subject)
+				.expiration(new Date(System.currentTimeMillis() + ttlMillis))
+				.signWith(Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(KEY_A)))
+				.compact();
+	}
+
+	private void writeKeys(String... kidsAndKeys) throws IOException {
+		StringBuilder json = new StringBuilder("{\"keys\": [");
+		for (int i = 0; i < kidsAndKeys.length; i += 2) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"kty\": \"oct\", \"kid\": \"").append(kidsAndKeys[i])
+					.append("\", \"k\": \"").append(kidsAndKeys[i + 1]).append("\"}");
+		}
+		Files.writeString(jwks, json.append("]}").toString());
+	}
+}
@@ -0,0 +1,71 @@
+package com.example.api_gateway.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class TimeWindowedBloomFilterTests {
+
+	private static final long MINUTE = 60_000;
+
+	@Test
+	void hasNoFalseNegativesAndFewFalsePositives() {
+		TimeWindowedBloomFilter filter = new TimeWindowedBloomFilter(5 * MINUTE, 60 * MINUTE, 1000, 0.01);
+		long now = 1_000_000 * MINUTE;
+		long expiry = now + 10 * MINUTE;
+
+		String[] added = new String[1000];
+		for (int i = 0; i < added.length; i++) {
+			added[i] = UUID.randomUUID().toString();
+			assertTrue(filter.add(added[i], expiry, now));
+		}
+		for (String key : added) {
+			assertTrue(filter.mightContain(key, expiry));
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.mightContain(UUID.randomUUID().toString(), expiry)) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+		assertEquals(1000, filter.size(now));
+		assertTrue(filter.expectedFalsePositiveRate(now) < 0.03);
+	}
+
+	@Test
+	void reusesWindowsOnceTheirKeysExpired() {
+		TimeWindowedBloomFilter filter = new TimeWindowedBloomFilter(MINUTE, 5 * MINUTE, 100, 0.01);
+		long now = 1_000_000 * MINUTE;
+		filter.add("revoked", now + 2 * MINUTE, now);
+
+		// Other windows and keys beyond the horizon are not affected
+		assertFalse(filter.mightContain("revoked", now + 3 * MINUTE));
+		assertFalse(filter.add("long-lived", now + 60 * MINUTE, now));
+
+		// Later on, the slot of the expired window serves a new one
+		long later = now + 6 * MINUTE;
+		filter.add("other", later + 2 * MINUTE, later);
+		assertFalse(filter.mightContain("revoked", now + 2 * MINUTE));
+		assertTrue(filter.mightContain("other", later + 2 * MINUTE));
+	}
+
+	@Test
+	void revocationListConfirmsBloomPositives() {
+		TokenRevocationList revocations = new TokenRevocationList(Duration.ofMinutes(5),
+				Duration.ofHours(1), 1000, 0.001);
+		long expiry = System.currentTimeMillis() + 10 * MINUTE;
+		revocations.revoke("jti-1", expiry);
+		revocations.revoke("jti-far", System.currentTimeMillis() + 24 * 60 * MINUTE);
+
+		assertTrue(revocations.isRevoked(new VerifiedToken("admin", expiry, "jti-1")));
+		assertFalse(revocations.isRevoked(new VerifiedToken("admin", expiry, "jti-2")));
+		assertFalse(revocations.isRevoked(new VerifiedToken("admin", expiry, null)));
+		assertTrue(revocations.isRevoked(new VerifiedToken("admin", System.currentTimeMillis() + 24 * 60 * MINUTE, "jti-far")));
+	}
+}
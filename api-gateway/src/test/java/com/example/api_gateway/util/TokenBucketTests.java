@@ -0,0 +1,51 @@
+package com.example.api_gateway.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+	@Test
+	void allowsBurstUpToCapacityThenRefills() {
+		TokenBucket bucket = new TokenBucket(3, 10);
+		long now = System.nanoTime();
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, bucket.tryAcquire(now));
+		}
+		long wait = bucket.tryAcquire(now);
+		assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(100));
+
+		// One refill interval later exactly one more token is available
+		long later = now + TimeUnit.MILLISECONDS.toNanos(100);
+		assertEquals(0, bucket.tryAcquire(later));
+		assertTrue(bucket.tryAcquire(later) > 0);
+	}
+
+	@Test
+	void reportsFullOnceRefilled() {
+		TokenBucket bucket = new TokenBucket(2, 1);
+		long now = System.nanoTime();
+		bucket.tryAcquire(now);
+
+		assertEquals(1d, bucket.availableTokens(now), 0.001);
+		assertTrue(bucket.isFull(now + TimeUnit.SECONDS.toNanos(1)));
+	}
+
+	@Test
+	void refundGivesTheTokenBack() {
+		TokenBucket bucket = new TokenBucket(2, 1);
+		long now = System.nanoTime();
+		assertEquals(0, bucket.tryAcquire(now));
+		assertEquals(0, bucket.tryAcquire(now));
+		assertTrue(bucket.tryAcquire(now) > 0);
+
+		bucket.refund();
+		assertEquals(1d, bucket.availableTokens(now), 0.001);
+		assertEquals(0, bucket.tryAcquire(now));
+	}
+}
@@ -1,9 +1,17 @@
 package com.example.auth_service.config;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -14,13 +22,18 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 import com.example.auth_service.entity.User;
 import com.example.auth_service.repository.UserRepository;
+import com.example.auth_service.security.BoundedPasswordEncoder;
 import com.example.auth_service.service.CustomUserDetailsService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -39,12 +52,45 @@ public class SecurityConfig {
         return userDetailsService;
     }
 
-     /**
+    /**
      * Provides a PasswordEncoder bean for hashing passwords.
+     * <p>
+     * New hashes are written with the encoder named by {@code auth.password.encoding-id} and prefixed
+     * with its id, e.g. {@code {bcrypt}$2a$...}. Hashes stored before the prefix was introduced are
+     * plain BCrypt and still match. Hashes of another encoder or an older BCrypt strength are
+     * replaced on the user's next successful login, see {@link #authenticationProvider}.
+     * </p>
+     * All hashing runs on the bounded {@link #passwordHashingExecutor}.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            ThreadPoolExecutor passwordHashingExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${auth.password.encoding-id:bcrypt}") String encodingId,
+            @Value("${auth.password.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${auth.password.max-wait:2s}") Duration maxWait) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encodingId, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new BoundedPasswordEncoder(delegating, passwordHashingExecutor, maxWait, meterRegistry);
+    }
+
+    /**
+     * Dedicated pool for password hashing, one thread per core by default. Its queue is bounded and
+     * rejects once full, so a burst of logins fails fast instead of pinning every request thread.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor(
+            @Value("${auth.password.hashing-threads:0}") int threads,
+            @Value("${auth.password.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
     }
     
     /**
@@ -64,6 +110,16 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Moves the user id sequence past the ids already in use before anything is inserted, see
+     * {@link UserRepository#alignIdSequence()}.
+     */
+    @Bean
+    @Order(0)
+    public CommandLineRunner alignUserIdSequence(UserRepository userRepository) {
+        return args -> userRepository.alignIdSequence();
+    }
+
     /**
      * Seeds an admin user into the database at application startup if the admin username and password
      * are provided via application.properties file. If the admin user does not already exist, a new user
@@ -76,6 +132,7 @@ public class SecurityConfig {
      * @return a CommandLineRunner that performs the seeding logic at application startup
      */
     @Bean
+    @Order(1)
     public CommandLineRunner seedAdminUser(
             UserRepository userRepository,
             PasswordEncoder passwordEncoder,
@@ -107,12 +164,14 @@ public class SecurityConfig {
 
     /**
      * Defines the authentication provider, linking the UserDetailsService and
-     * PasswordEncoder.
+     * PasswordEncoder. After a successful login, hashes the encoder reports as outdated are
+     * rehashed with the current settings and stored through the UserDetailsPasswordService.
      */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 }
\ No newline at end of file
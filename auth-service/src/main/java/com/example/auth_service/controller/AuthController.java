@@ -1,14 +1,27 @@
 package com.example.auth_service.controller;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -17,17 +30,28 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.auth_service.dto.AuthRequest;
+import com.example.auth_service.dto.RefreshRequest;
+import com.example.auth_service.dto.TokenClaims;
+import com.example.auth_service.dto.TokenResponse;
+import com.example.auth_service.dto.TokenRevokedEvent;
 import com.example.auth_service.dto.UserDTO;
+import com.example.auth_service.dto.UserImportResult;
+import com.example.auth_service.event.TokenRevocationPublisher;
+import com.example.auth_service.exception.UserWithoutRoleException;
+import com.example.auth_service.security.LoginThrottle;
 import com.example.auth_service.service.AuthService;
-import com.example.auth_service.service.CustomUserDetailsService;
 import com.example.auth_service.service.JwtService;
+import com.example.auth_service.service.RefreshTokenService;
+import com.example.auth_service.service.UserImportService;
 
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
     private static final String AUTH_HEADER_PREFIX = "Basic ";
+    private static final String BEARER_HEADER_PREFIX = "Bearer ";
     private static final String AUTH_HEADER_NAME = "Authorization";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
 
     @Autowired
     private AuthenticationManager authenticationManager;
@@ -36,25 +60,33 @@ public class AuthController {
     private JwtService jwtService;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private AuthService authService;
 
     @Autowired
-    private AuthService authService;
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenRevocationPublisher revocationPublisher;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private UserImportService userImportService;
 
     /**
      * Endpoint to authenticate a user and generate a JWT.
      * 
      * @param authRequest DTO containing the username and password.
-     * @return A JWT string if authentication is successful.
+     * @return A short-lived access token and a refresh token if authentication is successful.
+     * @throws BadCredentialsException if the credentials are missing or wrong, answered with 401.
      */
     @PostMapping("/token")
-    public ResponseEntity<String> authenticateAndGetToken(@RequestHeader(AUTH_HEADER_NAME) String authHeader) {
+    public ResponseEntity<TokenResponse> authenticateAndGetToken(@RequestHeader(AUTH_HEADER_NAME) String authHeader,
+            HttpServletRequest request) {
 
         if (authHeader == null || !authHeader.startsWith(AUTH_HEADER_PREFIX)) {
-            return new ResponseEntity<>(
-                "Missing or Invalid Authorization header",
-                HttpStatus.UNAUTHORIZED
-            );
+            throw new BadCredentialsException("Missing or Invalid Authorization header");
         }
 
         final String[] values = decodeCredentials(authHeader);
@@ -62,7 +94,24 @@ public class AuthController {
         String username = values[0];
         String password = values[1];
 
-        return ResponseEntity.ok(generateAuthToken(username, password));
+        // Refuse throttled attempts before the password hash is computed
+        loginThrottle.checkAllowed(username, request.getRemoteAddr());
+        return ResponseEntity.ok(generateAuthToken(username, password, request.getRemoteAddr()));
+    }
+
+    /**
+     * Endpoint to renew an access token without sending the credentials again.
+     * The refresh token is single-use, the response carries its replacement.
+     *
+     * @param refreshRequest DTO containing the refresh token from the previous token response.
+     * @return A new access token and refresh token.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponse> refreshToken(@RequestBody RefreshRequest refreshRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshRequest.refreshToken());
+        UserDetails userDetails = new User(rotation.username(), "", List.of(new SimpleGrantedAuthority(rotation.role())));
+        return ResponseEntity.ok(TokenResponse.bearer(
+                jwtService.generateToken(userDetails), rotation.refreshToken(), jwtService.getExpirationSeconds()));
     }
 
     /**
@@ -73,38 +122,107 @@ public class AuthController {
      */
     @PostMapping("/register")
     public ResponseEntity<String> registerAdminUser(@RequestBody AuthRequest authRequest) {
-        UserDTO createdUser = authService.createUser(
-                new com.example.auth_service.dto.UserDTO(
-                        authRequest.username(), authRequest.password()));
+        // The password was just hashed for storage, checking it against that hash again would only cost another BCrypt round
+        UserDetails createdUser = authService.createUser(
+                new UserDTO(authRequest.username(), authRequest.password()));
 
         return ResponseEntity.ok(
                     "User registered, generated token:  \n" 
-                    + generateAuthToken(
-                                createdUser.getUsername(), createdUser.getPassword()
-                    )
+                    + jwtService.generateToken(createdUser)
                 );
     }
 
+    /**
+     * Endpoint to revoke an access token before it expires, e.g. on logout or when it leaked.
+     * The revocation is published to the gateway, which rejects the token from then on.
+     *
+     * @param authHeader the {@code Bearer} access token to revoke.
+     * @param revokeRequest optionally the refresh token issued with it, which is invalidated as well.
+     * @return 204 once the broker has acknowledged the revocation, 503 if it did not in time.
+     */
+    @PostMapping("/revoke")
+    public ResponseEntity<?> revokeToken(@RequestHeader(AUTH_HEADER_NAME) String authHeader,
+            @RequestBody(required = false) RefreshRequest revokeRequest) {
+        if (authHeader == null || !authHeader.startsWith(BEARER_HEADER_PREFIX)) {
+            return new ResponseEntity<>(
+                "Missing or Invalid Authorization header",
+                HttpStatus.UNAUTHORIZED
+            );
+        }
+        TokenClaims claims = jwtService.validateToken(authHeader.substring(BEARER_HEADER_PREFIX.length()));
+        if (claims.tokenId() == null) {
+            return ResponseEntity.badRequest().body("Token has no id and cannot be revoked");
+        }
+        revocationPublisher.publish(new TokenRevokedEvent(claims.tokenId(), claims.expiration().toEpochMilli()));
+        if (revokeRequest != null && revokeRequest.refreshToken() != null) {
+            refreshTokenService.revoke(revokeRequest.refreshToken());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Endpoint to create many users from one upload, e.g. when onboarding a partner.
+     * The body is streamed: NDJSON ({@code application/x-ndjson}) with one {@code {"username", "password"}}
+     * object per line, or CSV ({@code text/csv}) with {@code username,password} lines.
+     *
+     * @return how many users were created, and the line number and reason of every skipped row.
+     */
+    @PostMapping(value = "/users/import", consumes = { NDJSON_CONTENT_TYPE, "text/csv" })
+    public ResponseEntity<UserImportResult> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request) throws IOException {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        UserImportService.Format format = mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON_CONTENT_TYPE))
+                ? UserImportService.Format.NDJSON
+                : UserImportService.Format.CSV;
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+        try (Reader reader = new InputStreamReader(request.getInputStream(), charset)) {
+            return ResponseEntity.ok(userImportService.importUsers(reader, format));
+        }
+    }
+
     private String[] decodeCredentials(String authHeader) {
         // Decode Base64 encoded username:password
         String base64Credentials = authHeader.substring(AUTH_HEADER_PREFIX.length()).trim();
-        byte[] credDecoded = Base64.getDecoder().decode(base64Credentials);
+        byte[] credDecoded;
+        try {
+            credDecoded = Base64.getDecoder().decode(base64Credentials);
+        } catch (IllegalArgumentException e) {
+            throw new BadCredentialsException("Missing or Invalid Authorization header");
+        }
         String credentials = new String(credDecoded, StandardCharsets.UTF_8);
 
         // credentials = username:password
         final String[] values = credentials.split(":", 2);
+        if (values.length != 2) {
+            throw new BadCredentialsException("Missing or Invalid Authorization header");
+        }
         return values;
     }
 
-    private String generateAuthToken(String username, String password) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(username, password));
-
-        if (authentication.isAuthenticated()) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            return jwtService.generateToken(userDetails);
+    private TokenResponse generateAuthToken(String username, String password, String clientAddress) {
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(username, password));
+        } catch (BadCredentialsException e) {
+            loginThrottle.recordFailure(username, clientAddress);
+            throw e;
+        }
+        loginThrottle.recordSuccess(username);
+
+        // The provider already loaded the user to check the password, issue the token from that principal
+        if (authentication.isAuthenticated() && authentication.getPrincipal() instanceof UserDetails userDetails) {
+            // The refresh token carries a single role, a user without any cannot be issued tokens
+            String role = userDetails.getAuthorities().stream()
+                    .findFirst()
+                    .map(GrantedAuthority::getAuthority)
+                    .orElseThrow(() -> new UserWithoutRoleException("User " + userDetails.getUsername() + " has no role"));
+            return TokenResponse.bearer(
+                    jwtService.generateToken(userDetails),
+                    refreshTokenService.issue(userDetails.getUsername(), role),
+                    jwtService.getExpirationSeconds());
         } else {
-            throw new RuntimeException("Invalid user request!");
+            throw new BadCredentialsException("Invalid user request!");
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.example.auth_service.dto;
+
+public record RefreshRequest(
+    String refreshToken
+) {}
@@ -0,0 +1,23 @@
+package com.example.auth_service.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable view of the claims of a verified JWT.
+ *
+ * @param tokenId    the unique id ({@code jti}) of the token, null for tokens issued before ids were added.
+ * @param subject    the username the token was issued to.
+ * @param expiration when the token expires.
+ * @param roles      the roles granted to the subject, never null.
+ */
+public record TokenClaims(
+    String tokenId,
+    String subject,
+    Instant expiration,
+    List<String> roles
+) {
+    public TokenClaims {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.auth_service.dto;
+
+/**
+ * Tokens returned by a successful login or refresh.
+ *
+ * @param accessToken  the JWT to send as {@code Authorization: Bearer ...}.
+ * @param refreshToken the opaque, single-use token to obtain the next access token from {@code /auth/refresh}.
+ * @param tokenType    always {@code Bearer}.
+ * @param expiresIn    lifetime of the access token in seconds.
+ */
+public record TokenResponse(
+    String accessToken,
+    String refreshToken,
+    String tokenType,
+    long expiresIn
+) {
+    public static TokenResponse bearer(String accessToken, String refreshToken, long expiresIn) {
+        return new TokenResponse(accessToken, refreshToken, "Bearer", expiresIn);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.auth_service.dto;
+
+/**
+ * Published when an access token is revoked before its expiry.
+ *
+ * @param tokenId         the {@code jti} of the revoked token.
+ * @param expiresAtMillis when the token expires anyway, consumers can forget it after that.
+ */
+public record TokenRevokedEvent(
+    String tokenId,
+    long expiresAtMillis
+) {}
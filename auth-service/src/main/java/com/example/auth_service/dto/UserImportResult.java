@@ -0,0 +1,23 @@
+package com.example.auth_service.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import.
+ *
+ * @param imported number of users created.
+ * @param failed   number of rows that were skipped.
+ * @param errors   why rows were skipped, capped to the first rows so a bad file cannot blow up the response.
+ */
+public record UserImportResult(
+    int imported,
+    int failed,
+    List<RowError> errors
+) {
+    /**
+     * @param line     line number of the row in the uploaded file, starting at 1.
+     * @param username the username of the row, if it could be read.
+     * @param message  why the row was skipped.
+     */
+    public record RowError(long line, String username, String message) {}
+}
@@ -0,0 +1,50 @@
+package com.example.auth_service.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * A refresh token issued to a user. Only a hash of the token is stored, the token itself is
+ * handed to the client once and cannot be recovered from the database.
+ */
+@Entity
+@Table(name = "auth_refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_expires_at", columnList = "expiresAt"))
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private String role;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    public RefreshToken(String tokenHash, String username, String role, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.username = username;
+        this.role = role;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -18,8 +19,11 @@ import lombok.ToString;
 @ToString
 @NoArgsConstructor
 public class User {
+    // Sequence ids can be assigned before the INSERT, which lets Hibernate batch the inserts of a bulk import.
+    // Ids are fetched in blocks of 50, the block size must match the sequence increment.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "auth_users_seq")
+    @SequenceGenerator(name = "auth_users_seq", sequenceName = "auth_users_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
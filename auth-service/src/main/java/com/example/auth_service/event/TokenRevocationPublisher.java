@@ -0,0 +1,58 @@
+package com.example.auth_service.event;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.auth_service.dto.TokenRevokedEvent;
+import com.example.auth_service.exception.RevocationUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Publishes a {@link TokenRevokedEvent} for every revoked access token. The api-gateway keeps the
+ * revoked ids in memory and rejects those tokens without calling auth-service.
+ */
+@Component
+public class TokenRevocationPublisher {
+
+    private static final String TOPIC = "token-revoked";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+
+    public TokenRevocationPublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+            @Value("${auth.revocation.publish-timeout:5s}") Duration timeout) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Publishes the revocation and waits until the broker has acknowledged it.
+     *
+     * @throws RevocationUnavailableException if it was not acknowledged within the timeout.
+     */
+    public void publish(TokenRevokedEvent event) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize token revocation", e);
+        }
+        try {
+            kafkaTemplate.send(TOPIC, event.tokenId(), json).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RevocationUnavailableException("Token revocation was interrupted", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RevocationUnavailableException("Token revocation could not be published, retry later", e);
+        }
+    }
+}
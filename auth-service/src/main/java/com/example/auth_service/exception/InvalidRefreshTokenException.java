@@ -0,0 +1,10 @@
+package com.example.auth_service.exception;
+
+/**
+ * Thrown when a refresh token is unknown, expired or has already been used.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.auth_service.exception;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a login is refused because its username or client address failed too often recently.
+ * It is mapped to 429 with a {@code Retry-After} by {@link GlobalExceptionHandler}.
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LoginThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.auth_service.exception;
+
+/**
+ * Thrown when the password hashing pool is saturated and a hash could not be computed in time.
+ * The request should be retried later, it is mapped to 503 by {@link GlobalExceptionHandler}.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
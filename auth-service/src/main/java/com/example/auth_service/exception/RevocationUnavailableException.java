@@ -0,0 +1,11 @@
+package com.example.auth_service.exception;
+
+/**
+ * Thrown when a token revocation could not be published to the gateway in time, so the token may
+ * still be accepted and the caller has to retry.
+ */
+public class RevocationUnavailableException extends RuntimeException {
+    public RevocationUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.auth_service.exception;
+
+/**
+ * Thrown when an authenticated user has no role, so no access or refresh token can be issued for it.
+ */
+public class UserWithoutRoleException extends RuntimeException {
+    public UserWithoutRoleException(String message) {
+        super(message);
+    }
+}
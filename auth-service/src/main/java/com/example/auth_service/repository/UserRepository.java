@@ -1,8 +1,12 @@
 package com.example.auth_service.repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.auth_service.entity.User;
@@ -10,4 +14,16 @@ import com.example.auth_service.entity.User;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Moves the id sequence past the highest id in use, so ids handed out by it cannot collide with
+     * rows inserted before the table switched from identity columns to the sequence.
+     */
+    @Query(value = "select setval('auth_users_seq', greatest("
+            + "(select coalesce(max(id), 0) from auth_users) + 50, (select last_value from auth_users_seq)))",
+            nativeQuery = true)
+    long alignIdSequence();
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.example.auth_service.security;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.auth_service.exception.LoginThrottledException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Refuses logins for usernames and client addresses with too many recent failed attempts.
+ * <p>
+ * Every attempt that reaches the {@code AuthenticationManager} costs a full password hash. The check
+ * runs before it, so a credential stuffing burst is turned away without hashing once the failures
+ * of a username, or of the address it comes from, reach their limit within the sliding window.
+ * Failures are counted in {@link SlidingWindowCounter}s of fixed size, so a flood of distinct
+ * usernames or addresses cannot grow the memory used. A successful login clears the failures of
+ * its username, those of its address stay so one known password cannot unlock a spraying client.
+ * </p>
+ */
+@Component
+public class LoginThrottle {
+
+    private final SlidingWindowCounter usernameFailures;
+    private final SlidingWindowCounter addressFailures;
+    private final int maxUsernameFailures;
+    private final int maxAddressFailures;
+
+    private final Counter usernameRejected;
+    private final Counter addressRejected;
+    private final Counter usernameLockouts;
+    private final Counter addressLockouts;
+    private final Counter failures;
+
+    public LoginThrottle(
+            @Value("${auth.login-throttle.window:5m}") Duration window,
+            @Value("${auth.login-throttle.username-max-failures:5}") int maxUsernameFailures,
+            @Value("${auth.login-throttle.address-max-failures:50}") int maxAddressFailures,
+            @Value("${auth.login-throttle.counter-width:16384}") int counterWidth,
+            MeterRegistry meterRegistry) {
+        this.usernameFailures = new SlidingWindowCounter(counterWidth, window, System::currentTimeMillis);
+        this.addressFailures = new SlidingWindowCounter(counterWidth, window, System::currentTimeMillis);
+        this.maxUsernameFailures = maxUsernameFailures;
+        this.maxAddressFailures = maxAddressFailures;
+        this.usernameRejected = rejectedCounter(meterRegistry, "username");
+        this.addressRejected = rejectedCounter(meterRegistry, "address");
+        this.usernameLockouts = lockoutCounter(meterRegistry, "username");
+        this.addressLockouts = lockoutCounter(meterRegistry, "address");
+        this.failures = Counter.builder("auth.login.failures")
+                .description("Logins rejected because of bad credentials")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws LoginThrottledException if the username or the client address reached its failure limit.
+     */
+    public void checkAllowed(String username, String clientAddress) {
+        if (usernameFailures.count(username) >= maxUsernameFailures) {
+            usernameRejected.increment();
+            throw new LoginThrottledException("Too many failed logins for this user",
+                    usernameFailures.timeUntilBelow(username, maxUsernameFailures));
+        }
+        if (clientAddress != null && addressFailures.count(clientAddress) >= maxAddressFailures) {
+            addressRejected.increment();
+            throw new LoginThrottledException("Too many failed logins from this address",
+                    addressFailures.timeUntilBelow(clientAddress, maxAddressFailures));
+        }
+    }
+
+    /**
+     * Counts a failed login against the username and the client address.
+     */
+    public void recordFailure(String username, String clientAddress) {
+        failures.increment();
+        if (usernameFailures.increment(username) == maxUsernameFailures) {
+            usernameLockouts.increment();
+        }
+        if (clientAddress != null && addressFailures.increment(clientAddress) == maxAddressFailures) {
+            addressLockouts.increment();
+        }
+    }
+
+    /**
+     * Clears the failures counted against the username after it logged in successfully.
+     */
+    public void recordSuccess(String username) {
+        usernameFailures.reset(username);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("auth.login.throttled")
+                .description("Logins refused before checking the password because of recent failures")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    private static Counter lockoutCounter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("auth.login.lockouts")
+                .description("Usernames or client addresses that reached their failure limit")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.auth_service.security;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate per-key event counts over a sliding window, in a fixed amount of memory.
+ * <p>
+ * Keys are not stored. Each key maps to one cell in each of two rows of a count-min sketch, and its
+ * count is the smaller of the two cells, so colliding keys can only make a count too high, never too
+ * low. A cell packs the window it belongs to with the counts of that window and the one before, and
+ * the sliding count weighs the previous window by the part of it still inside the sliding window.
+ * Cells are updated with a CAS, no locks are taken.
+ * </p>
+ * Memory is {@code 2 * width} longs whatever the number of keys seen.
+ */
+public class SlidingWindowCounter {
+
+    private static final long MAX_COUNT = 0xFFFF;
+
+    private final AtomicLongArray cells;
+    private final int width;
+    private final long windowMillis;
+    private final LongSupplier clock;
+
+    /**
+     * @param width  cells per row, rounded up to a power of two. More cells mean fewer collisions.
+     * @param window length of the sliding window.
+     * @param clock  current time in milliseconds.
+     */
+    public SlidingWindowCounter(int width, Duration window, LongSupplier clock) {
+        this.width = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.cells = new AtomicLongArray(this.width * 2);
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+    }
+
+    /**
+     * Counts one event for the key.
+     *
+     * @return the sliding count of the key including this event.
+     */
+    public int increment(String key) {
+        final long now = clock.getAsLong();
+        final int window = windowOf(now);
+        final int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < 2; row++) {
+            final int index = index(hash, row);
+            long raw;
+            long next;
+            do {
+                raw = cells.get(index);
+                final long cell = roll(raw, window);
+                next = current(cell) < MAX_COUNT ? cell + 1 : cell;
+            } while (raw != next && !cells.compareAndSet(index, raw, next));
+            estimate = Math.min(estimate, (int) estimate(next, now));
+        }
+        return estimate;
+    }
+
+    /**
+     * Takes the key's count back to zero.
+     * <p>
+     * The key's share of each cell is taken to be the smaller of its two cells, which is at least its
+     * own count; keys colliding with it in a row may thereby lose up to that many counted events.
+     * </p>
+     */
+    public void reset(String key) {
+        final int window = windowOf(clock.getAsLong());
+        final int hash = key.hashCode();
+        long previous = MAX_COUNT;
+        long current = MAX_COUNT;
+        for (int row = 0; row < 2; row++) {
+            final long cell = roll(cells.get(index(hash, row)), window);
+            previous = Math.min(previous, previous(cell));
+            current = Math.min(current, current(cell));
+        }
+        if (previous == 0 && current == 0) {
+            return;
+        }
+        for (int row = 0; row < 2; row++) {
+            final int index = index(hash, row);
+            long raw;
+            long next;
+            do {
+                raw = cells.get(index);
+                final long cell = roll(raw, window);
+                next = pack(window, Math.max(0, previous(cell) - previous), Math.max(0, current(cell) - current));
+            } while (raw != next && !cells.compareAndSet(index, raw, next));
+        }
+    }
+
+    /**
+     * @return the sliding count of the key, without counting an event.
+     */
+    public int count(String key) {
+        final long now = clock.getAsLong();
+        final int window = windowOf(now);
+        final int hash = key.hashCode();
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < 2; row++) {
+            estimate = Math.min(estimate, estimate(roll(cells.get(index(hash, row)), window), now));
+        }
+        return (int) estimate;
+    }
+
+    /**
+     * @return how long until the sliding count of the key drops below {@code limit}, assuming no
+     *         further events, or zero if it already is below.
+     */
+    public Duration timeUntilBelow(String key, int limit) {
+        final long now = clock.getAsLong();
+        final int window = windowOf(now);
+        final int hash = key.hashCode();
+        long wait = Long.MAX_VALUE;
+        for (int row = 0; row < 2; row++) {
+            wait = Math.min(wait, millisUntilBelow(roll(cells.get(index(hash, row)), window), now, limit));
+        }
+        return Duration.ofMillis(wait);
+    }
+
+    private long millisUntilBelow(long cell, long now, int limit) {
+        if (estimate(cell, now) < limit) {
+            return 0;
+        }
+        final long offset = now % windowMillis;
+        final long previous = previous(cell);
+        final long current = current(cell);
+        if (current < limit) {
+            // The previous window slides out far enough before this one ends
+            return Math.max(1, (long) Math.ceil(windowMillis * (1 - (double) (limit - current) / previous)) - offset + 1);
+        }
+        // This window alone is over the limit, it has to slide out partly once it became the previous one
+        return windowMillis - offset + (long) Math.ceil(windowMillis * (1 - (double) limit / current)) + 1;
+    }
+
+    private double estimate(long cell, long now) {
+        final double remaining = 1 - (double) (now % windowMillis) / windowMillis;
+        return current(cell) + previous(cell) * remaining;
+    }
+
+    private int windowOf(long now) {
+        return (int) (now / windowMillis);
+    }
+
+    private int index(int hash, int row) {
+        int h = row == 0 ? hash * 0x9E3779B9 : Integer.rotateLeft(hash * 0x85EBCA6B, 16) ^ hash;
+        h ^= h >>> 16;
+        return row * width + (h & (width - 1));
+    }
+
+    /**
+     * Moves the cell to the given window: the counts of the window before become the previous
+     * counts, anything older is dropped.
+     */
+    private static long roll(long cell, int window) {
+        final int cellWindow = (int) (cell >>> 32);
+        if (cellWindow == window) {
+            return cell;
+        }
+        if (cellWindow == window - 1) {
+            return pack(window, current(cell), 0);
+        }
+        return pack(window, 0, 0);
+    }
+
+    private static long pack(int window, long previous, long current) {
+        return ((long) window << 32) | (previous << 16) | current;
+    }
+
+    private static long previous(long cell) {
+        return (cell >>> 16) & MAX_COUNT;
+    }
+
+    private static long current(long cell) {
+        return cell & MAX_COUNT;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.auth_service.service;
 
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -18,11 +19,14 @@ public class AuthService {
         this.passwordEncoder = passwordEncoder;
     }
 
-    public UserDTO createUser(UserDTO userDTO) {
+    /**
+     * Stores a new user with a hashed password.
+     * @return the created user, ready to have a token issued without authenticating it again.
+     */
+    public UserDetails createUser(UserDTO userDTO) {
         User userToSave = new User(
                 userDTO.getUsername(),
                 passwordEncoder.encode(userDTO.getPassword()));
-        userRepository.save(userToSave);
-        return new UserDTO(userDTO.getUsername(), userDTO.getPassword());
+        return CustomUserDetailsService.toUserDetails(userRepository.save(userToSave));
     }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package com.example.auth_service.service;
 
-import java.util.ArrayList;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.auth_service.entity.User;
 import com.example.auth_service.repository.UserRepository;
@@ -26,12 +29,17 @@ import com.example.auth_service.repository.UserRepository;
  * 
  * <p>
  * The returned {@link org.springframework.security.core.userdetails.User} object contains the username,
- * password, and an empty list of authorities.
+ * password, and the user's role as its only authority.
+ * </p>
+ *
+ * <p>
+ * As a {@link UserDetailsPasswordService} it also stores the new hash when a password hashed with
+ * outdated settings is upgraded after a successful login.
  * </p>
  * 
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
@@ -41,6 +49,22 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), new ArrayList<>());
+        return toUserDetails(user);
+    }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        return toUserDetails(userRepository.save(user));
+    }
+
+    /**
+     * Builds the security view of a stored user, with its role as the only authority.
+     */
+    public static UserDetails toUserDetails(User user) {
+        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), List.of(new SimpleGrantedAuthority(user.getRole())));
     }
 }
\ No newline at end of file
@@ -2,29 +2,53 @@ package com.example.auth_service.service;
 
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
-import javax.crypto.SecretKey;
-
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.example.auth_service.dto.TokenClaims;
+import com.example.auth_service.security.JwtKeyRing;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    /** Claim holding the authorities of the subject, e.g. {@code ["ROLE_ADMIN"]}. */
+    public static final String ROLES_CLAIM = "roles";
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    private final JwtKeyRing keyRing;
+    private JwtParser jwtParser;
+
+    public JwtService(JwtKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    /**
+     * Builds the parser once, it is immutable and thread-safe and picks the key of each token by its
+     * {@code kid} from the key ring.
+     */
+    @PostConstruct
+    void init() {
+        this.jwtParser = Jwts.parser()
+                .keyLocator(keyRing)
+                .build();
+    }
+
     /**
      * Generates a JWT for the given user details.
      * @param userDetails The user details to create the token for.
@@ -36,20 +60,50 @@ public class JwtService {
 
     /**
      * Generates a JWT with extra claims.
+     * The authorities of the user are added as the {@value #ROLES_CLAIM} claim, and every token gets a
+     * random id ({@code jti}) by which it can be revoked. The token is signed with the current key
+     * of the key ring, whose id goes into the {@code kid} header.
      * @param extraClaims Additional claims to include in the token.
      * @param userDetails The user details.
      * @return A signed JWT string.
      */
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return Jwts.builder()
+        long now = System.currentTimeMillis();
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
+        JwtBuilder builder = Jwts.builder();
+        if (signingKey.keyId() != null) {
+            builder.header().keyId(signingKey.keyId());
+        }
+        return builder
                 .claims(extraClaims)
+                .claim(ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .id(UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + jwtExpiration))
+                .signWith(signingKey.key())
                 .compact();
     }
 
+    /**
+     * @return the lifetime of issued tokens in seconds.
+     */
+    public long getExpirationSeconds() {
+        return jwtExpiration / 1000;
+    }
+
+    /**
+     * Verifies a token once and returns its claims.
+     * @param token The JWT string.
+     * @return the id, subject, expiry and roles of the token.
+     * @throws JwtException if the token is malformed, its signature is invalid or it has expired.
+     * @throws IllegalArgumentException if the token is null or empty.
+     */
+    public TokenClaims validateToken(String token) {
+        Claims claims = extractAllClaims(token);
+        return new TokenClaims(claims.getId(), claims.getSubject(), claims.getExpiration().toInstant(), roles(claims));
+    }
+
     /**
      * Extracts the username from a JWT.
      * @param token The JWT string.
@@ -61,33 +115,17 @@ public class JwtService {
 
     /**
      * Checks if a token is valid for a given user.
+     * The token is parsed and verified once, expired tokens are rejected by the parser itself.
      * @param token The JWT to validate.
      * @param userDetails The user details to validate against.
      * @return true if the token is valid, false otherwise.
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    /**
-     * Checks if the provided JWT token has expired.
-     *
-     * @param token the JWT token to check
-     * @return {@code true} if the token is expired, {@code false} otherwise
-     */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    /**
-     * Extracts the expiration date from the provided JWT token.
-     *
-     * @param token the JWT token from which to extract the expiration date
-     * @return the expiration {@link Date} of the token
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        try {
+            return validateToken(token).subject().equals(userDetails.getUsername());
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
     }
 
     /**
@@ -113,19 +151,16 @@ public class JwtService {
      * @throws IllegalArgumentException if the token is null or empty
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    /**
-     * Creates a SecretKey instance from the base64 encoded secret string.
-     * @return A SecretKey for signing and verification.
-     */
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static List<String> roles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof List<?> list)) {
+            return List.of();
+        }
+        return list.stream().map(String::valueOf).toList();
     }
-}
\ No newline at end of file
+}
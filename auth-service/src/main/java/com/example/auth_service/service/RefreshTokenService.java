@@ -0,0 +1,149 @@
+package com.example.auth_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.auth_service.entity.RefreshToken;
+import com.example.auth_service.entity.User;
+import com.example.auth_service.exception.InvalidRefreshTokenException;
+import com.example.auth_service.exception.UserWithoutRoleException;
+import com.example.auth_service.repository.RefreshTokenRepository;
+import com.example.auth_service.repository.UserRepository;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ * <p>
+ * A refresh token is 256 random bits, the database only keeps its SHA-256 so a leaked table cannot be
+ * replayed. Tokens are single-use: redeeming one deletes it with a conditional delete, so of two
+ * concurrent attempts (also across replicas) only one gets a new token. Recently issued tokens are
+ * kept in an in-memory map, sparing the lookup query on renewal. The user is always loaded again, so
+ * a renewed access token carries the current role and a deleted user cannot renew at all.
+ * </p>
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<String, CachedToken> cache = new ConcurrentHashMap<>();
+
+    @Value("${jwt.refresh-expiration:7d}")
+    private Duration refreshExpiration;
+
+    @Value("${jwt.refresh-cache.max-size:100000}")
+    private int cacheMaxSize;
+
+    /**
+     * The user a redeemed token belonged to, and the refresh token that replaces it.
+     */
+    public record Rotation(String username, String role, String refreshToken) {}
+
+    private record CachedToken(String username, String role, Instant expiresAt) {}
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Issues a new refresh token.
+     * @return the token to hand to the client, it is not stored anywhere in plain form.
+     */
+    @Transactional
+    public String issue(String username, String role) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String tokenHash = hash(token);
+        Instant expiresAt = Instant.now().plus(refreshExpiration);
+
+        refreshTokenRepository.save(new RefreshToken(tokenHash, username, role, expiresAt));
+        if (cache.size() < cacheMaxSize) {
+            cache.put(tokenHash, new CachedToken(username, role, expiresAt));
+        }
+        return token;
+    }
+
+    /**
+     * Redeems a refresh token and issues its successor, with the role the user has now.
+     * @throws InvalidRefreshTokenException if the token is unknown, expired or was already used, or
+     *         its user no longer exists.
+     * @throws UserWithoutRoleException if the user no longer has a role.
+     */
+    @Transactional
+    public Rotation rotate(String token) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token is missing");
+        }
+        String tokenHash = hash(token);
+        CachedToken stored = cache.remove(tokenHash);
+        if (stored == null) {
+            // Issued by another replica, or before a restart
+            stored = refreshTokenRepository.findByTokenHash(tokenHash)
+                    .map(t -> new CachedToken(t.getUsername(), t.getRole(), t.getExpiresAt()))
+                    .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is invalid"));
+        }
+        if (refreshTokenRepository.deleteByTokenHash(tokenHash) != 1) {
+            throw new InvalidRefreshTokenException("Refresh token has already been used");
+        }
+        if (stored.expiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+        User user = userRepository.findByUsername(stored.username())
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is invalid"));
+        String role = user.getRole();
+        if (role == null || role.isBlank()) {
+            throw new UserWithoutRoleException("User " + user.getUsername() + " has no role");
+        }
+        return new Rotation(user.getUsername(), role, issue(user.getUsername(), role));
+    }
+
+    /**
+     * Invalidates a refresh token, unknown or already used tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String token) {
+        String tokenHash = hash(token);
+        cache.remove(tokenHash);
+        refreshTokenRepository.deleteByTokenHash(tokenHash);
+    }
+
+    /**
+     * Removes expired tokens from the database and the cache.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        cache.values().removeIf(t -> t.expiresAt().isBefore(now));
+        refreshTokenRepository.deleteExpired(now);
+    }
+
+    private static String hash(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.auth_service.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.auth_service.dto.UserDTO;
+import com.example.auth_service.dto.UserImportResult;
+import com.example.auth_service.entity.User;
+import com.example.auth_service.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Creates users in bulk from an NDJSON or CSV stream.
+ * <p>
+ * The input is read line by line and handled in chunks, so the whole file is never held in memory.
+ * For each chunk, usernames that already exist are looked up in one query, the remaining passwords
+ * are hashed in parallel and the users are inserted in one transaction, which Hibernate sends as
+ * JDBC batches. A row that cannot be imported is reported with its line number and skipped, the
+ * rest of the import carries on. Imported users get the role {@code auth.import.role},
+ * {@code ROLE_USER} by default, never the administrator role the {@link User} constructor assigns.
+ * </p>
+ * Hashes go through the application's {@link PasswordEncoder}, i.e. the bounded hashing pool shared
+ * with logins. At most {@code auth.import.hashing-parallelism} of them are in flight, half the cores
+ * by default, so an import leaves room for logins.
+ */
+@Service
+public class UserImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final String CSV_HEADER = "username,password";
+
+    /**
+     * Supported input formats, one user per line.
+     * NDJSON lines are {@code {"username": ..., "password": ...}}, CSV lines are {@code username,password}
+     * with an optional header line. Everything after the first comma of a CSV line is the password.
+     */
+    public enum Format { NDJSON, CSV }
+
+    private record Row(long line, String username, String password) {}
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService hashingExecutor;
+    private final int chunkSize;
+    private final String role;
+
+    public UserImportService(
+            UserRepository userRepository,
+            PasswordEncoder passwordEncoder,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${auth.import.chunk-size:500}") int chunkSize,
+            @Value("${auth.import.hashing-parallelism:0}") int hashingParallelism,
+            @Value("${auth.import.role:ROLE_USER}") String role) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.role = role;
+        int parallelism = hashingParallelism > 0
+                ? hashingParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashingExecutor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("user-import-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingExecutor.shutdownNow();
+    }
+
+    /**
+     * Imports every user of the stream.
+     * @return how many users were created, and why the other rows were skipped.
+     */
+    public UserImportResult importUsers(Reader input, Format format) throws IOException {
+        Progress progress = new Progress();
+        // Only the usernames of the current chunk, earlier chunks are committed and found by the lookup
+        Set<String> seen = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = input instanceof BufferedReader buffered ? buffered : new BufferedReader(input);
+
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && line.strip().equalsIgnoreCase(CSV_HEADER))) {
+                continue;
+            }
+            Row row = parse(line, lineNumber, format, progress);
+            if (row == null) {
+                continue;
+            }
+            if (!seen.add(row.username())) {
+                progress.fail(row, "Username appears more than once in the import");
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, progress);
+                chunk.clear();
+                seen.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, progress);
+        }
+        return new UserImportResult(progress.imported, progress.failed, progress.errors);
+    }
+
+    private Row parse(String line, long lineNumber, Format format, Progress progress) {
+        String username;
+        String password;
+        if (format == Format.CSV) {
+            int comma = line.indexOf(',');
+            username = comma < 0 ? line.strip() : line.substring(0, comma).strip();
+            password = comma < 0 ? null : line.substring(comma + 1);
+        } else {
+            try {
+                UserDTO user = objectMapper.readValue(line, UserDTO.class);
+                username = user.getUsername();
+                password = user.getPassword();
+            } catch (JsonProcessingException e) {
+                progress.fail(new Row(lineNumber, null, null), "Line is not a valid JSON user");
+                return null;
+            }
+        }
+        Row row = new Row(lineNumber, username, password);
+        if (username == null || username.isBlank()) {
+            progress.fail(row, "Username is missing");
+            return null;
+        }
+        if (password == null || password.isEmpty()) {
+            progress.fail(row, "Password is missing");
+            return null;
+        }
+        return row;
+    }
+
+    private void importChunk(List<Row> chunk, Progress progress) {
+        Set<String> existing = userRepository.findExistingUsernames(chunk.stream().map(Row::username).toList());
+
+        // Submit all hashes first, then collect them, so they run in parallel
+        List<Row> rows = new ArrayList<>(chunk.size());
+        List<Future<String>> hashes = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (existing.contains(row.username())) {
+                progress.fail(row, "Username already exists");
+            } else {
+                rows.add(row);
+                hashes.add(hashingExecutor.submit(() -> passwordEncoder.encode(row.password())));
+            }
+        }
+
+        List<Row> hashedRows = new ArrayList<>(rows.size());
+        List<String> hashedPasswords = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                hashedPasswords.add(hashes.get(i).get());
+                hashedRows.add(rows.get(i));
+            } catch (ExecutionException e) {
+                progress.fail(rows.get(i), "Password could not be hashed: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                hashes.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import interrupted", e);
+            }
+        }
+        if (hashedRows.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAllAndFlush(users(hashedRows, hashedPasswords)));
+            progress.imported += hashedRows.size();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent registration took one of the usernames, insert the rows one by one to find it
+            for (int i = 0; i < hashedRows.size(); i++) {
+                User user = user(hashedRows.get(i), hashedPasswords.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> userRepository.saveAndFlush(user));
+                    progress.imported++;
+                } catch (DataIntegrityViolationException rowError) {
+                    progress.fail(hashedRows.get(i), "Username already exists");
+                }
+            }
+        }
+    }
+
+    private List<User> users(List<Row> rows, List<String> hashedPasswords) {
+        List<User> users = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            users.add(user(rows.get(i), hashedPasswords.get(i)));
+        }
+        return users;
+    }
+
+    private User user(Row row, String hashedPassword) {
+        User user = new User(row.username(), hashedPassword);
+        user.setRole(role);
+        return user;
+    }
+
+    private static final class Progress {
+        int imported;
+        int failed;
+        final List<UserImportResult.RowError> errors = new ArrayList<>();
+
+        void fail(Row row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new UserImportResult.RowError(row.line(), row.username(), message));
+            }
+        }
+    }
+}
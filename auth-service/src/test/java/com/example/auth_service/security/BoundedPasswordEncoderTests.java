@@ -0,0 +1,88 @@
+package com.example.auth_service.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.example.auth_service.exception.PasswordHashingBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BoundedPasswordEncoderTests {
+
+	private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void delegatesAndRecordsTimings() {
+		BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new PlainEncoder(null), executor,
+				Duration.ofSeconds(5), registry);
+
+		assertEquals("hashed:secret", encoder.encode("secret"));
+		assertTrue(encoder.matches("secret", "hashed:secret"));
+		assertEquals(1, registry.get("auth.password.hash-time").tag("operation", "matches").timer().count());
+		assertEquals(1, registry.get("auth.password.queue-wait").tag("operation", "encode").timer().count());
+	}
+
+	@Test
+	void rejectsWhenPoolIsSaturated() {
+		CountDownLatch release = new CountDownLatch(1);
+		BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new PlainEncoder(null), executor,
+				Duration.ofSeconds(5), registry);
+		// Occupy the only thread and the only queue slot
+		executor.submit(() -> {
+			release.await();
+			return null;
+		});
+		executor.submit(() -> { });
+
+		assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("b"));
+		assertEquals(1, registry.get("auth.password.rejected").counter().count());
+		release.countDown();
+	}
+
+	@Test
+	void timesOutWhenResultIsLate() {
+		BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new PlainEncoder(new CountDownLatch(1)), executor,
+				Duration.ofMillis(50), registry);
+
+		assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("a"));
+	}
+
+	/** Stand-in for an expensive encoder, optionally blocking until released. */
+	private record PlainEncoder(CountDownLatch release) implements PasswordEncoder {
+
+		@Override
+		public String encode(CharSequence rawPassword) {
+			if (release != null) {
+				try {
+					release.await(1, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return "hashed:" + rawPassword;
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			return encode(rawPassword).equals(encodedPassword);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.example.auth_service.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+class JwtKeyRingTests {
+
+	private static final String KEY_A = "a2V5LWEtZm9yLXRlc3RzLW9ubHktMzItYnl0ZXMtbG9uZy1hYWE";
+	private static final String KEY_B = "a2V5LWItZm9yLXRlc3RzLW9ubHktMzItYnl0ZXMtbG9uZy1iYmI";
+	private static final String LEGACY = "bGVnYWN5LXNlY3JldC1mb3ItdGVzdHMtMzItYnl0ZXMtbG9uZw==";
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void signsWithFirstKeyAndVerifiesAcrossRotation() throws IOException {
+		Path jwks = dir.resolve("jwt-keys.json");
+		writeKeys(jwks, "a", KEY_A);
+		JwtKeyRing keyRing = new JwtKeyRing(new DefaultResourceLoader(), new ObjectMapper(), "file:" + jwks, LEGACY);
+
+		String signedWithA = sign(keyRing);
+		assertEquals("a", verify(keyRing, signedWithA).getKeyId());
+
+		// Rotate: b signs, a still verifies
+		writeKeys(jwks, "b", KEY_B, "a", KEY_A);
+		keyRing.reload();
+		assertEquals("b", keyRing.signingKey().keyId());
+		assertEquals("a", verify(keyRing, signedWithA).getKeyId());
+		assertEquals("b", verify(keyRing, sign(keyRing)).getKeyId());
+
+		// Retire a
+		writeKeys(jwks, "b", KEY_B);
+		keyRing.reload();
+		assertThrows(JwtException.class, () -> verify(keyRing, signedWithA));
+	}
+
+	@Test
+	void verifiesTokensWithoutKeyIdWithLegacySecret() throws IOException {
+		Path jwks = dir.resolve("jwt-keys.json");
+		writeKeys(jwks, "a", KEY_A);
+		JwtKeyRing keyRing = new JwtKeyRing(new DefaultResourceLoader(), new ObjectMapper(), "file:" + jwks, LEGACY);
+
+		String legacyToken = Jwts.builder()
+				.subject("admin")
+				.expiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(LEGACY)))
+				.compact();
+		assertNull(verify(keyRing, legacyToken).getKeyId());
+	}
+
+	@Test
+	void keepsCurrentKeysWhenReloadFails() throws IOException {
+		Path jwks = dir.resolve("jwt-keys.json");
+		writeKeys(jwks, "a", KEY_A);
+		JwtKeyRing keyRing = new JwtKeyRing(new DefaultResourceLoader(), new ObjectMapper(), "file:" + jwks, "");
+
+		Files.writeString(jwks, "{\"keys\": []}");
+		keyRing.reload();
+		assertEquals("a", keyRing.signingKey().keyId());
+	}
+
+	private static String sign(JwtKeyRing keyRing) {
+		JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
+		return Jwts.builder()
+				.header().keyId(signingKey.keyId()).and()
+				.subject("admin")
+				.expiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(signingKey.key())
+				.compact();
+	}
+
+	private static JwsHeader verify(JwtKeyRing keyRing, String token) {
+		return Jwts.parser().keyLocator(keyRing).build().parseSignedClaims(token).getHeader();
+	}
+
+	private static void writeKeys(Path file, String... kidsAndKeys) throws IOException {
+		StringBuilder json = new StringBuilder("{\"keys\": [");
+		for (int i = 0; i < kidsAndKeys.length; i += 2) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"kty\": \"oct\", \"kid\": \"").append(kidsAndKeys[i])
+					.append("\", \"k\": \"").append(kidsAndKeys[i + 1]).append("\"}");
+		}
+		Files.writeString(file, json.append("]}").toString());
+	}
+}
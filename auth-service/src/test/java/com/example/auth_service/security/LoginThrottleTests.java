@@ -0,0 +1,64 @@
+package com.example.auth_service.security;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.auth_service.exception.LoginThrottledException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoginThrottleTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final LoginThrottle throttle = new LoginThrottle(Duration.ofMinutes(5), 3, 5, 1024, registry);
+
+	@Test
+	void locksUsernameAfterRepeatedFailures() {
+		for (int i = 0; i < 3; i++) {
+			throttle.checkAllowed("admin", "10.0.0.1");
+			throttle.recordFailure("admin", "10.0.0.1");
+		}
+
+		LoginThrottledException e = assertThrows(LoginThrottledException.class,
+				() -> throttle.checkAllowed("admin", "10.0.0.2"));
+		assertTrue(e.getRetryAfter().compareTo(Duration.ZERO) > 0);
+		assertDoesNotThrow(() -> throttle.checkAllowed("other", "10.0.0.2"));
+		assertEquals(1, registry.get("auth.login.lockouts").tag("scope", "username").counter().count());
+		assertEquals(1, registry.get("auth.login.throttled").tag("scope", "username").counter().count());
+	}
+
+	@Test
+	void locksAddressSprayingManyUsernames() {
+		for (int i = 0; i < 5; i++) {
+			throttle.recordFailure("user-" + i, "10.0.0.1");
+		}
+
+		assertThrows(LoginThrottledException.class, () -> throttle.checkAllowed("fresh", "10.0.0.1"));
+		assertDoesNotThrow(() -> throttle.checkAllowed("fresh", "10.0.0.2"));
+		assertEquals(5, registry.get("auth.login.failures").counter().count());
+		assertEquals(1, registry.get("auth.login.throttled").tag("scope", "address").counter().count());
+	}
+
+	@Test
+	void successfulLoginClearsUsernameFailuresOnly() {
+		for (int i = 0; i < 2; i++) {
+			throttle.recordFailure("admin", "10.0.0.1");
+		}
+		for (int i = 0; i < 3; i++) {
+			throttle.recordFailure("user-" + i, "10.0.0.1");
+		}
+		throttle.recordSuccess("admin");
+
+		for (int i = 0; i < 2; i++) {
+			throttle.recordFailure("admin", "10.0.0.2");
+		}
+		assertDoesNotThrow(() -> throttle.checkAllowed("admin", "10.0.0.2"));
+		assertThrows(LoginThrottledException.class, () -> throttle.checkAllowed("admin", "10.0.0.1"));
+	}
+}
@@ -0,0 +1,88 @@
+package com.example.auth_service.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class SlidingWindowCounterTests {
+
+	private final AtomicLong clock = new AtomicLong(60_000 * 1000);
+
+	@Test
+	void countsPerKeyWithinTheWindow() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(1024, Duration.ofMinutes(1), clock::get);
+
+		for (int i = 0; i < 5; i++) {
+			counter.increment("alice");
+		}
+		counter.increment("bob");
+
+		assertEquals(5, counter.count("alice"));
+		assertEquals(1, counter.count("bob"));
+		assertEquals(0, counter.count("carol"));
+	}
+
+	@Test
+	void resetClearsOnlyThatKey() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(1024, Duration.ofMinutes(1), clock::get);
+		for (int i = 0; i < 4; i++) {
+			counter.increment("alice");
+		}
+		clock.addAndGet(60_000);
+		counter.increment("alice");
+		counter.increment("bob");
+
+		counter.reset("alice");
+
+		assertEquals(0, counter.count("alice"));
+		assertEquals(1, counter.count("bob"));
+		assertEquals(1, counter.increment("alice"));
+	}
+
+	@Test
+	void previousWindowSlidesOut() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(1024, Duration.ofMinutes(1), clock::get);
+		for (int i = 0; i < 10; i++) {
+			counter.increment("alice");
+		}
+
+		// A quarter into the next window three quarters of the previous one still count
+		clock.addAndGet(75_000);
+		assertEquals(7, counter.count("alice"));
+
+		clock.addAndGet(60_000);
+		assertEquals(0, counter.count("alice"));
+	}
+
+	@Test
+	void reportsWhenTheCountDropsBelowTheLimit() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(1024, Duration.ofMinutes(1), clock::get);
+		for (int i = 0; i < 10; i++) {
+			counter.increment("alice");
+		}
+
+		assertEquals(Duration.ZERO, counter.timeUntilBelow("alice", 11));
+		Duration wait = counter.timeUntilBelow("alice", 5);
+		// The window ends in a minute, then half of it has to slide out
+		assertEquals(90, wait.toSeconds());
+
+		clock.addAndGet(wait.toMillis());
+		assertTrue(counter.count("alice") < 5);
+	}
+
+	@Test
+	void neverUndercountsWhenKeysCollide() {
+		SlidingWindowCounter counter = new SlidingWindowCounter(2, Duration.ofMinutes(1), clock::get);
+		for (int i = 0; i < 100; i++) {
+			counter.increment("user-" + i);
+		}
+		counter.increment("alice");
+		counter.increment("alice");
+
+		assertTrue(counter.count("alice") >= 2);
+	}
+}
@@ -0,0 +1,70 @@
+package com.example.auth_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.auth_service.dto.TokenClaims;
+import com.example.auth_service.security.JwtKeyRing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+
+class JwtServiceTests {
+
+	private static final String SECRET = "c2VjcmV0LWtleS1mb3ItdGVzdHMtb25seS0zMi1ieXRlcy1sb25n";
+
+	private final UserDetails admin = new User("admin", "hash", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+	@Test
+	void validateTokenReturnsSubjectExpiryAndRoles() {
+		JwtService jwtService = jwtService(60_000);
+
+		TokenClaims claims = jwtService.validateToken(jwtService.generateToken(admin));
+
+		assertEquals("admin", claims.subject());
+		assertNotNull(claims.tokenId());
+		assertEquals(List.of("ROLE_ADMIN"), claims.roles());
+		assertTrue(claims.expiration().isAfter(Instant.now()));
+	}
+
+	@Test
+	void rejectsForeignAndExpiredTokens() {
+		JwtService jwtService = jwtService(60_000);
+		String token = jwtService.generateToken(admin);
+
+		JwtService otherKey = jwtService(60_000, "b3RoZXItc2VjcmV0LWtleS1mb3ItdGVzdHMtMzItYnl0ZXMtbG9uZw==");
+		assertThrows(JwtException.class, () -> otherKey.validateToken(token));
+		assertFalse(jwtService.isTokenValid(token, new User("other", "hash", List.of())));
+		assertTrue(jwtService.isTokenValid(token, admin));
+
+		JwtService expiring = jwtService(-1_000);
+		String expired = expiring.generateToken(admin);
+		assertThrows(ExpiredJwtException.class, () -> expiring.validateToken(expired));
+		assertFalse(expiring.isTokenValid(expired, admin));
+	}
+
+	private static JwtService jwtService(long expirationMillis) {
+		return jwtService(expirationMillis, SECRET);
+	}
+
+	private static JwtService jwtService(long expirationMillis, String secret) {
+		JwtService jwtService = new JwtService(new JwtKeyRing(new DefaultResourceLoader(), new ObjectMapper(), "", secret));
+		ReflectionTestUtils.setField(jwtService, "jwtExpiration", expirationMillis);
+		jwtService.init();
+		return jwtService;
+	}
+}
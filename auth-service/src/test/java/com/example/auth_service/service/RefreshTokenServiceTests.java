@@ -0,0 +1,106 @@
+package com.example.auth_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.auth_service.entity.RefreshToken;
+import com.example.auth_service.entity.User;
+import com.example.auth_service.exception.InvalidRefreshTokenException;
+import com.example.auth_service.exception.UserWithoutRoleException;
+import com.example.auth_service.repository.RefreshTokenRepository;
+import com.example.auth_service.repository.UserRepository;
+
+class RefreshTokenServiceTests {
+
+	private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+	private final UserRepository userRepository = mock(UserRepository.class);
+	private final RefreshTokenService service = new RefreshTokenService(repository, userRepository);
+	private final User admin = new User("admin", "hash");
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "refreshExpiration", Duration.ofDays(7));
+		ReflectionTestUtils.setField(service, "cacheMaxSize", 100);
+		when(repository.save(any(RefreshToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
+	}
+
+	@Test
+	void rotatesFromCacheWithoutLookup() {
+		String token = service.issue("admin", "ROLE_ADMIN");
+		when(repository.deleteByTokenHash(anyString())).thenReturn(1);
+
+		RefreshTokenService.Rotation rotation = service.rotate(token);
+
+		assertEquals("admin", rotation.username());
+		assertEquals("ROLE_ADMIN", rotation.role());
+		assertNotEquals(token, rotation.refreshToken());
+		verify(repository, never()).findByTokenHash(anyString());
+	}
+
+	@Test
+	void rejectsReusedAndUnknownTokens() {
+		String token = service.issue("admin", "ROLE_ADMIN");
+		// Another request already redeemed it
+		when(repository.deleteByTokenHash(anyString())).thenReturn(0);
+		assertThrows(InvalidRefreshTokenException.class, () -> service.rotate(token));
+
+		when(repository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+		assertThrows(InvalidRefreshTokenException.class, () -> service.rotate(token));
+	}
+
+	@Test
+	void rejectsExpiredTokenFromDatabase() {
+		when(repository.findByTokenHash(anyString())).thenReturn(Optional.of(
+				new RefreshToken("hash", "admin", "ROLE_ADMIN", Instant.now().minusSeconds(1))));
+		when(repository.deleteByTokenHash(anyString())).thenReturn(1);
+
+		assertThrows(InvalidRefreshTokenException.class, () -> service.rotate("issued-before-restart"));
+	}
+
+	@Test
+	void renewsWithTheCurrentRole() {
+		String token = service.issue("admin", "ROLE_ADMIN");
+		when(repository.deleteByTokenHash(anyString())).thenReturn(1);
+		admin.setRole("ROLE_USER");
+
+		RefreshTokenService.Rotation rotation = service.rotate(token);
+
+		assertEquals("ROLE_USER", rotation.role());
+		verify(repository).save(argThat(saved -> saved.getRole().equals("ROLE_USER")));
+	}
+
+	@Test
+	void rejectsTokenOfDeletedUser() {
+		String token = service.issue("admin", "ROLE_ADMIN");
+		when(repository.deleteByTokenHash(anyString())).thenReturn(1);
+		when(userRepository.findByUsername("admin")).thenReturn(Optional.empty());
+
+		assertThrows(InvalidRefreshTokenException.class, () -> service.rotate(token));
+	}
+
+	@Test
+	void rejectsUserWithoutRole() {
+		String token = service.issue("admin", "ROLE_ADMIN");
+		when(repository.deleteByTokenHash(anyString())).thenReturn(1);
+		admin.setRole("");
+
+		assertThrows(UserWithoutRoleException.class, () -> service.rotate(token));
+	}
+}
@@ -0,0 +1,112 @@
+package com.example.auth_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.auth_service.dto.UserImportResult;
+import com.example.auth_service.entity.User;
+import com.example.auth_service.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class UserImportServiceTests {
+
+	private final UserRepository repository = mock(UserRepository.class);
+	private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+	private final UserImportService service = new UserImportService(repository, passwordEncoder,
+			mock(PlatformTransactionManager.class), new ObjectMapper(), 2, 2, "ROLE_USER");
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	@Test
+	void importsNdjsonInChunksAndReportsBadRows() throws IOException {
+		when(passwordEncoder.encode(any())).thenAnswer(invocation -> "hashed:" + invocation.getArgument(0));
+		Set<String> stored = new HashSet<>(Set.of("taken"));
+		when(repository.findExistingUsernames(anyCollection())).thenAnswer(invocation -> {
+			Collection<String> usernames = invocation.getArgument(0);
+			return usernames.stream().filter(stored::contains).collect(Collectors.toSet());
+		});
+		when(repository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+			List<User> users = invocation.getArgument(0);
+			users.forEach(user -> stored.add(user.getUsername()));
+			return users;
+		});
+		String ndjson = """
+				{"username": "alice", "password": "a"}
+				not json
+				{"username": "bob", "password": "b"}
+
+				{"username": "taken", "password": "t"}
+				{"username": "alice", "password": "again"}
+				{"username": "carol"}
+				{"username": "dave", "password": "d"}
+				""";
+
+		UserImportResult result = service.importUsers(new StringReader(ndjson), UserImportService.Format.NDJSON);
+
+		assertEquals(3, result.imported());
+		assertEquals(4, result.failed());
+		assertEquals(List.of(2L, 5L, 6L, 7L), result.errors().stream().map(UserImportResult.RowError::line).sorted().toList());
+		// alice and bob, then taken and alice which both exist by then, then dave
+		verify(repository, times(2)).saveAllAndFlush(anyList());
+	}
+
+	@Test
+	void skipsCsvHeaderAndKeepsCommasInPasswords() throws IOException {
+		when(passwordEncoder.encode(any())).thenAnswer(invocation -> "hashed:" + invocation.getArgument(0));
+		when(repository.findExistingUsernames(anyCollection())).thenReturn(Set.of());
+		when(repository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+			List<User> users = invocation.getArgument(0);
+			assertEquals("hashed:p,w", users.get(0).getPassword());
+			assertEquals("ROLE_USER", users.get(0).getRole());
+			return users;
+		});
+
+		UserImportResult result = service.importUsers(new StringReader("username,password\nalice,p,w\n"),
+				UserImportService.Format.CSV);
+
+		assertEquals(1, result.imported());
+		assertEquals(0, result.failed());
+	}
+
+	@Test
+	void insertsRowByRowWhenBatchHitsConcurrentDuplicate() throws IOException {
+		when(passwordEncoder.encode(any())).thenReturn("hashed");
+		when(repository.findExistingUsernames(anyCollection())).thenReturn(Set.of());
+		when(repository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("duplicate"));
+		when(repository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+			User user = invocation.getArgument(0);
+			if (user.getUsername().equals("bob")) {
+				throw new DataIntegrityViolationException("duplicate");
+			}
+			return user;
+		});
+
+		UserImportResult result = service.importUsers(new StringReader("alice,a\nbob,b\n"), UserImportService.Format.CSV);
+
+		assertEquals(1, result.imported());
+		assertEquals("bob", result.errors().get(0).username());
+	}
+}
@@ -0,0 +1,159 @@
+package com.example.jwt_benchmarks;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Cost of the JWT operations on the request path: signing in auth-service's {@code JwtService},
+ * verification and claim extraction in {@code JwtService} and the gateway's {@code JwtUtil}.
+ * <p>
+ * {@code claimSize} varies the payload from a bare subject to a token carrying a long permission
+ * list. {@code keyStrategy} covers how the services obtain their key and parser:
+ * </p>
+ * <ul>
+ *   <li>{@code DECODE_PER_CALL}: Base64-decode the secret and build key and parser on every call.</li>
+ *   <li>{@code CACHED_KEY}: the key is built once, a parser is still built per call.</li>
+ *   <li>{@code CACHED_PARSER}: key and parser are built once and shared.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtBenchmark {
+
+    public enum ClaimSize {
+        /** Subject and timestamps only. */
+        SMALL(0, 0),
+        /** A role and a handful of profile claims. */
+        MEDIUM(5, 0),
+        /** Many claims plus a long permission list. */
+        LARGE(30, 50);
+
+        final int extraClaims;
+        final int permissions;
+
+        ClaimSize(int extraClaims, int permissions) {
+            this.extraClaims = extraClaims;
+            this.permissions = permissions;
+        }
+    }
+
+    public enum KeyStrategy {
+        DECODE_PER_CALL, CACHED_KEY, CACHED_PARSER
+    }
+
+    private static final String SUBJECT = "benchmark-user";
+    private static final long EXPIRATION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Param
+    public ClaimSize claimSize;
+
+    @Param
+    public KeyStrategy keyStrategy;
+
+    private String base64Secret;
+    private SecretKey cachedKey;
+    private JwtParser cachedParser;
+    private Map<String, Object> claims;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        base64Secret = Encoders.BASE64.encode(secret);
+        cachedKey = Keys.hmacShaKeyFor(secret);
+        cachedParser = Jwts.parser().verifyWith(cachedKey).build();
+        claims = claims(claimSize);
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .claims(claims)
+                .subject(SUBJECT)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + EXPIRATION_MILLIS))
+                .signWith(key())
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return parser().parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Verifies the token and reads the claims a service acts on, as {@code isTokenValid} does.
+     */
+    @Benchmark
+    public void extractClaims(Blackhole blackhole) {
+        Claims payload = parser().parseSignedClaims(token).getPayload();
+        blackhole.consume(payload.getSubject());
+        blackhole.consume(payload.getExpiration());
+        blackhole.consume(payload.get("role", String.class));
+    }
+
+    private SecretKey key() {
+        return keyStrategy == KeyStrategy.DECODE_PER_CALL ? Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)) : cachedKey;
+    }
+
+    private JwtParser parser() {
+        return switch (keyStrategy) {
+            case CACHED_PARSER -> cachedParser;
+            default -> Jwts.parser().verifyWith(key()).build();
+        };
+    }
+
+    private static Map<String, Object> claims(ClaimSize size) {
+        Map<String, Object> claims = new HashMap<>();
+        if (size == ClaimSize.SMALL) {
+            return claims;
+        }
+        claims.put("role", "ROLE_ADMIN");
+        for (int i = 0; i < size.extraClaims; i++) {
+            claims.put("claim" + i, "value-" + i);
+        }
+        List<String> permissions = new ArrayList<>();
+        for (int i = 0; i < size.permissions; i++) {
+            permissions.add("resource" + i + ":read");
+        }
+        if (!permissions.isEmpty()) {
+            claims.put("permissions", permissions);
+        }
+        return claims;
+    }
+}
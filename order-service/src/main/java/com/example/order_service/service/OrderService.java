@@ -24,7 +24,8 @@ public class OrderService {
         // Logic to process the order can be added here
         System.out.println("Order created: " + orderRequest);
         try {
-            kafkaTemplate.send("order-created", objectMapper.writeValueAsString(orderRequest));
+            // Keyed by product so all orders of a product are consumed in order by a single consumer
+            kafkaTemplate.send("order-created", orderRequest.productId(), objectMapper.writeValueAsString(orderRequest));
         } catch (JsonProcessingException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,75 @@
+package com.example.product_service.cache;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Redis pub/sub channel on which the replicas announce cache writes, so the others can drop the
+ * entries from their L1.
+ * <p>
+ * Pub/sub delivery is at most once: a replica that is disconnected misses the message and serves its
+ * L1 copy until it expires, which is why L1 entries are kept short-lived.
+ * </p>
+ */
+public class CacheInvalidationChannel implements BiConsumer<String, String>, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationChannel.class);
+
+    public static final String CHANNEL = "product-service:cache-invalidation";
+
+    /**
+     * @param origin the replica that made the write, it ignores its own messages.
+     * @param key    the invalidated key, {@code null} if the whole cache was cleared.
+     */
+    record Invalidation(String origin, String cache, String key) {}
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private volatile BiConsumer<String, String> handler = (cache, key) -> {};
+
+    public CacheInvalidationChannel(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Sets what to do with invalidations published by the other replicas.
+     */
+    public void onInvalidation(BiConsumer<String, String> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Publishes an invalidation to the other replicas.
+     */
+    @Override
+    public void accept(String cache, String key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(new Invalidation(instanceId, cache, key)));
+        } catch (JsonProcessingException e) {
+            log.error("Could not publish the invalidation of {} in cache {}", key, cache, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Invalidation invalidation = objectMapper.readValue(message.getBody(), Invalidation.class);
+            if (!instanceId.equals(invalidation.origin())) {
+                handler.accept(invalidation.cache(), invalidation.key());
+            }
+        } catch (Exception e) {
+            log.error("Dropping unreadable cache invalidation", e);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.product_service.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * A {@link Cache} with a bounded in-process L1 in front of a shared L2 (Redis).
+ * <p>
+ * Reads are served from L1 when possible and fill it from L2 otherwise, so a hot entry costs neither
+ * a network round trip nor deserialization. Every write goes to L2 first, then L1, and is announced
+ * through the invalidation publisher so the other replicas drop their L1 copy and read the new value
+ * from L2. L1 entries also expire on their own, which bounds the staleness if an invalidation is lost.
+ * </p>
+ * L1 is keyed by the string form of the key, the same form the Redis cache and the invalidation
+ * messages use. Concurrent misses of one key through {@link #get(Object, Callable)} run the loader
+ * once on this replica, the other callers wait for its value.
+ */
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    // Bumped on every invalidation, a value read from L2 is only kept in L1 if none happened meanwhile
+    private final AtomicLong invalidations = new AtomicLong();
+    // Loads in progress through get(key, valueLoader), by L1 key
+    private final ConcurrentMap<String, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    /**
+     * @param local                 the L1 of this replica.
+     * @param remote                the L2 shared by all replicas.
+     * @param invalidationPublisher told the cache name and key of every write, a {@code null} key
+     *                              standing for the whole cache.
+     */
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache remote,
+            BiConsumer<String, String> invalidationPublisher, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationPublisher = invalidationPublisher;
+        this.localHits = requestCounter(meterRegistry, name, "l1", "hit");
+        this.localMisses = requestCounter(meterRegistry, name, "l1", "miss");
+        this.remoteHits = requestCounter(meterRegistry, name, "l2", "hit");
+        this.remoteMisses = requestCounter(meterRegistry, name, "l2", "miss");
+        meterRegistry.gauge("cache.tier.size", Tags.of("cache", name, "tier", "l1"),
+                local, com.github.benmanes.caffeine.cache.Cache::estimatedSize);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        final String localKey = String.valueOf(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        localMisses.increment();
+
+        final long seen = invalidations.get();
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            remoteMisses.increment();
+            return wrapper;
+        }
+        remoteHits.increment();
+        if (invalidations.get() == seen) {
+            local.put(localKey, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        final String localKey = String.valueOf(key);
+        final CompletableFuture<Object> load = new CompletableFuture<>();
+        final CompletableFuture<Object> running = loads.putIfAbsent(localKey, load);
+        if (running != null) {
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        try {
+            // The load that just finished may have stored the value between the lookup and the claim
+            wrapper = get(key);
+            T value;
+            if (wrapper != null) {
+                value = (T) wrapper.get();
+            } else {
+                value = valueLoader.call();
+                put(key, value);
+            }
+            load.complete(value);
+            return value;
+        } catch (Exception e) {
+            load.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loads.remove(localKey, load);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        final String localKey = String.valueOf(key);
+        remote.put(key, value);
+        invalidations.incrementAndGet();
+        local.put(localKey, value);
+        invalidationPublisher.accept(name, localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        final String localKey = String.valueOf(key);
+        remote.evict(key);
+        evictLocal(localKey);
+        invalidationPublisher.accept(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clearLocal();
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * Drops an entry from L1 only, for a write another replica made.
+     */
+    void evictLocal(String key) {
+        invalidations.incrementAndGet();
+        local.invalidate(key);
+    }
+
+    /**
+     * Empties L1 only, for a clear another replica made.
+     */
+    void clearLocal() {
+        invalidations.incrementAndGet();
+        local.invalidateAll();
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String cache, String tier, String result) {
+        return Counter.builder("cache.tier.gets")
+                .description("Cache lookups per tier, L2 is only asked on an L1 miss")
+                .tags("cache", cache, "tier", tier, "result", result)
+                .register(meterRegistry);
+    }
+}
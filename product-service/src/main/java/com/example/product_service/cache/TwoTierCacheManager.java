@@ -0,0 +1,83 @@
+package com.example.product_service.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Puts a {@link TwoTierCache} with its own bounded Caffeine L1 in front of every cache of the
+ * given L2 manager. The L1 of each cache is sized by its {@link LocalSpec}, or the default one.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    /**
+     * Limits of the L1 of a cache.
+     */
+    public record LocalSpec(long maximumSize, Duration expireAfterWrite) {}
+
+    private final CacheManager remote;
+    private final LocalSpec defaultSpec;
+    private final Map<String, LocalSpec> specs;
+    private final BiConsumer<String, String> invalidationPublisher;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remote, LocalSpec defaultSpec, Map<String, LocalSpec> specs,
+            BiConsumer<String, String> invalidationPublisher, MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.defaultSpec = defaultSpec;
+        this.specs = Map.copyOf(specs);
+        this.invalidationPublisher = invalidationPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        LocalSpec spec = specs.getOrDefault(name, defaultSpec);
+        return caches.computeIfAbsent(name, n -> new TwoTierCache(n,
+                Caffeine.newBuilder()
+                        .maximumSize(spec.maximumSize())
+                        .expireAfterWrite(spec.expireAfterWrite())
+                        .build(),
+                remoteCache, invalidationPublisher, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    /**
+     * Applies a write made by another replica to the L1 of this one.
+     *
+     * @param key the invalidated key, or {@code null} if the whole cache was cleared.
+     */
+    public void onRemoteInvalidation(String cacheName, String key) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (key == null) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(key);
+        }
+    }
+}
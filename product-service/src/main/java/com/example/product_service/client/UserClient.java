@@ -6,7 +6,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 
 import com.example.product_service.dto.UserResponse;
 
-@FeignClient(name = "user-service", url = "http://user-service:9002")
+@FeignClient(name = "user-service")
 public interface UserClient {
 
     @GetMapping("/users/{id}")
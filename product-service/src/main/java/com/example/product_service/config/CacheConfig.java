@@ -1,22 +1,51 @@
 package com.example.product_service.config;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.example.product_service.cache.CacheInvalidationChannel;
+import com.example.product_service.cache.TwoTierCache;
+import com.example.product_service.cache.TwoTierCacheManager;
+import com.example.product_service.dto.ProductResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    /** Products by id, holds {@link ProductResponse}s. */
+    public static final String PRODUCTS = "products";
+    /**
+     * Product search results by normalized query, holds the lists of matching product ids, resolved
+     * through {@link #PRODUCTS}. Cleared when a product is created, renamed or deleted.
+     */
+    public static final String PRODUCT_SEARCH = "product-search";
+
+    private static final String KEY_FORMAT_VERSION = "v3";
+
     @Value("${spring.data.redis.host:localhost}")
     private String REDIS_HOST;
 
@@ -31,14 +60,73 @@ public class CacheConfig {
         return new LettuceConnectionFactory(configuration);
     }
 
+    /**
+     * Caches have a per-replica Caffeine L1 in front of the shared Redis L2. Writes are announced on
+     * a Redis channel so the other replicas drop their L1 copy, see {@link TwoTierCache}.
+     * <p>
+     * Products by id and search results live in separate regions, each with its own TTL, L1 size and
+     * a JSON serializer bound to the type it holds, so one region can never hand out the other's values.
+     * The key prefix carries a format version, entries written with the previous serializer are ignored.
+     * </p>
+     */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
-        RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10)) // Set a TTL of 10 minutes for all caches
-                .disableCachingNullValues(); // avoid caching null values
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory,
+            CacheInvalidationChannel cacheInvalidationChannel,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${cache.local.expire-after-write:30s}") Duration localExpireAfterWrite,
+            @Value("${cache.products.ttl:10m}") Duration productsTtl,
+            @Value("${cache.products.local-maximum-size:10000}") long productsLocalMaximumSize,
+            @Value("${cache.product-search.ttl:2m}") Duration searchTtl,
+            @Value("${cache.product-search.local-maximum-size:1000}") long searchLocalMaximumSize) {
+        TypeFactory types = objectMapper.getTypeFactory();
+        Map<String, RedisCacheConfiguration> regions = Map.of(
+                PRODUCTS, regionConfig(productsTtl,
+                        new Jackson2JsonRedisSerializer<>(objectMapper, types.constructType(ProductResponse.class))),
+                PRODUCT_SEARCH, regionConfig(searchTtl,
+                        new Jackson2JsonRedisSerializer<>(objectMapper,
+                                types.constructCollectionType(List.class, String.class))));
 
-        return RedisCacheManager.builder(redisConnectionFactory)
-                .cacheDefaults(cacheConfig)
+        // Clearing the search region deletes its keys with SCAN rather than a blocking KEYS
+        RedisCacheManager redisCacheManager = RedisCacheManager
+                .builder(RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory, BatchStrategies.scan(1000)))
+                .withInitialCacheConfigurations(regions)
+                .disableCreateOnMissingCache()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(redisCacheManager,
+                new TwoTierCacheManager.LocalSpec(productsLocalMaximumSize, localExpireAfterWrite),
+                Map.of(PRODUCT_SEARCH, new TwoTierCacheManager.LocalSpec(searchLocalMaximumSize,
+                        min(localExpireAfterWrite, searchTtl))),
+                cacheInvalidationChannel, meterRegistry);
+        cacheInvalidationChannel.onInvalidation(cacheManager::onRemoteInvalidation);
+        return cacheManager;
+    }
+
+    private static RedisCacheConfiguration regionConfig(Duration ttl, RedisSerializer<?> serializer) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(ttl)
+                .disableCachingNullValues() // avoid caching null values
+                .computePrefixWith(cacheName -> cacheName + ":" + KEY_FORMAT_VERSION + "::")
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    @Bean
+    public CacheInvalidationChannel cacheInvalidationChannel(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        return new CacheInvalidationChannel(redisTemplate, objectMapper);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory redisConnectionFactory,
+            CacheInvalidationChannel cacheInvalidationChannel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheInvalidationChannel, new ChannelTopic(CacheInvalidationChannel.CHANNEL));
+        return container;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package com.example.product_service.config;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Properties;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import com.example.product_service.event.ProductChangePublisher;
+import com.example.product_service.stock.HotStockLedger;
+
+@Configuration
+public class KafkaConfig {
+
+    // Approximate size of an order event, turns the batch size into the bytes a fetch waits for
+    private static final int ORDER_EVENT_BYTES = 100;
+
+    /**
+     * Listener containers for order events. Offsets are committed from manual acknowledgments, which
+     * may arrive out of order since reservations of hot products are only acknowledged once flushed,
+     * and an offset is committed once every record before it is acknowledged. Hot stock is flushed
+     * before partitions are revoked, so their pending offsets are committed before another replica
+     * takes them over.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> orderListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory,
+            HotStockLedger hotStockLedger) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        ContainerProperties properties = factory.getContainerProperties();
+        properties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        properties.setAsyncAcks(true);
+        properties.setConsumerRebalanceListener(new ConsumerAwareRebalanceListener() {
+            @Override
+            public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+                hotStockLedger.flushAndReset();
+            }
+        });
+        return factory;
+    }
+
+    /**
+     * Batch listener containers for order events, used when {@code orders.consumer.batch.enabled} is
+     * set. A poll returns up to {@code size} records, the broker holds a fetch for up to
+     * {@code max-wait} until roughly that many orders are available. The listener commits the offsets
+     * of a batch itself, right after its stock transaction and before anything slower than that.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> orderBatchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> kafkaConsumerFactory,
+            @Value("${orders.consumer.batch.size:500}") int batchSize,
+            @Value("${orders.consumer.batch.max-wait:100ms}") Duration maxWait) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, kafkaConsumerFactory);
+        factory.setBatchListener(true);
+        ContainerProperties properties = factory.getContainerProperties();
+        properties.setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        Properties consumerProperties = new Properties();
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+        consumerProperties.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) maxWait.toMillis());
+        consumerProperties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batchSize * ORDER_EVENT_BYTES);
+        properties.setKafkaConsumerProperties(consumerProperties);
+        return factory;
+    }
+
+    /**
+     * Product changes, keyed by product id. Declared here because the search index listener assigns
+     * itself the partitions of this topic at startup, before anything has been published to it.
+     *
+     * @return The product-changed topic definition
+     */
+    @Bean
+    public NewTopic productChangedTopic() {
+        return TopicBuilder.name(ProductChangePublisher.TOPIC)
+                .partitions(3)
+                .build();
+    }
+}
@@ -1,8 +1,14 @@
 package com.example.product_service.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,12 +16,19 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.product_service.dto.ProductPage;
 import com.example.product_service.dto.ProductRequest;
 import com.example.product_service.dto.ProductResponse;
+import com.example.product_service.exception.ListingBusyException;
 import com.example.product_service.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.validation.Valid;
 
@@ -23,10 +36,19 @@ import jakarta.validation.Valid;
 @RequestMapping("/products")
 public class ProductController {
 
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_PAGE_LIMIT = 500;
+
     private final ProductService service;
+    private final ObjectMapper objectMapper;
+    // Each running catalogue stream holds a database connection until the client has read it all
+    private final Semaphore listingStreams;
 
-    public ProductController(ProductService service) {
+    public ProductController(ProductService service, ObjectMapper objectMapper,
+            @Value("${products.listing.max-concurrent-streams:4}") int maxConcurrentStreams) {
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.listingStreams = new Semaphore(maxConcurrentStreams);
     }
 
     @PostMapping
@@ -39,9 +61,66 @@ public class ProductController {
         return ResponseEntity.ok(service.getProduct(id));
     }
 
-    @GetMapping
-    ResponseEntity<List<ProductResponse>> getAllProducts() {
-        return ResponseEntity.ok(service.getAllProducts());
+    /**
+     * Streams the whole catalogue as a JSON array, or as NDJSON (one product per line) when asked for
+     * {@code application/x-ndjson}. Products are written as they are read from the database, so memory
+     * use does not depend on the size of the catalogue. At most
+     * {@code products.listing.max-concurrent-streams} run at once, as each holds a database connection
+     * for as long as the client takes to read it; further requests get 503.
+     */
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    ResponseEntity<StreamingResponseBody> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean ndjson = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+        if (!listingStreams.tryAcquire()) {
+            throw new ListingBusyException("Too many catalogue listings in progress, retry later or use /products/page");
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.createGenerator(out)) {
+                json.setRootValueSeparator(null);
+                if (!ndjson) {
+                    json.writeStartArray();
+                }
+                service.forEachProduct(product -> {
+                    try {
+                        json.writeObject(product);
+                        if (ndjson) {
+                            json.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!ndjson) {
+                    json.writeEndArray();
+                }
+            } finally {
+                listingStreams.release();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * One page of the catalogue in id order. Pass the {@code nextCursor} of a page to get the next one.
+     */
+    @GetMapping("/page")
+    ResponseEntity<ProductPage> getProductPage(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(service.getProductPage(cursor, Math.max(1, Math.min(limit, MAX_PAGE_LIMIT))));
+    }
+
+    @GetMapping("/search")
+    ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam("q") String query,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(service.searchProductsByName(query, prefix, Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT))));
     }
 
     @PatchMapping("/{id}")
@@ -0,0 +1,17 @@
+package com.example.product_service.dto;
+
+/**
+ * @param name the product name, set on creation and on full updates; {@code null} for deletions and
+ *             stock changes, which leave the name as it was.
+ */
+public record ProductChangeEvent(
+        String productId,
+        Type type,
+        String name
+) {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
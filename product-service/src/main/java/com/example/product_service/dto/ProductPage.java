@@ -0,0 +1,14 @@
+package com.example.product_service.dto;
+
+import java.util.List;
+
+/**
+ * A page of products in id order.
+ *
+ * @param items      the products of this page.
+ * @param nextCursor opaque cursor to pass to get the next page, {@code null} on the last page.
+ */
+public record ProductPage(
+        List<ProductResponse> items,
+        String nextCursor
+) {}
@@ -4,6 +4,10 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+/**
+ * @param version the version of the product, as last read, that a full update is based on. Required
+ *                by updates, which fail with 409 if the product changed since; ignored on creation.
+ */
 public record ProductRequest(
         @NotBlank(message = "Name is mandatory")
         String name,
@@ -16,5 +20,7 @@ public record ProductRequest(
 
         @NotNull(message = "Quantity is mandatory")
         @Min(value = 0, message = "Quantity must be a positive value")
-        Integer quantity
+        Integer quantity,
+
+        Long version
 ) {}
@@ -5,5 +5,6 @@ public record ProductResponse (
         String name,
         String description,
         Double price,
-        Integer quantity
+        Integer quantity,
+        Long version
 ) implements java.io.Serializable {}
\ No newline at end of file
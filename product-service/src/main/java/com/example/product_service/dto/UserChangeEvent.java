@@ -0,0 +1,10 @@
+package com.example.product_service.dto;
+
+/**
+ * Published by user-service on the compacted user-changed topic, keyed by user id. A deleted user
+ * is a tombstone, a record with no value.
+ */
+public record UserChangeEvent(
+        String id,
+        String email) {
+}
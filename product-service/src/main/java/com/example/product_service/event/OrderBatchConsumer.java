@@ -0,0 +1,70 @@
+package com.example.product_service.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import com.example.product_service.dto.OrderEvent;
+import com.example.product_service.service.StockBatchService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Takes the stock of orders a batch at a time, with one decrement per product of the batch, see
+ * {@link StockBatchService}. Enabled with {@code orders.consumer.batch.enabled}.
+ * <p>
+ * The offsets of a batch are committed as soon as its stock transaction has committed, the orders
+ * are only confirmed after that, so a failure while confirming cannot deliver the batch again and
+ * take its stock twice; those confirmations are lost instead. If the stock cannot be written the
+ * batch fails as a whole and is delivered again. Hot products get no in-memory ledger in this mode,
+ * the batching already spreads their orders over far fewer writes.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "orders.consumer.batch.enabled", havingValue = "true")
+public class OrderBatchConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBatchConsumer.class);
+    private static final String TOPIC = "order-created";
+    private static final String GROUP_ID = "product-service-group";
+
+    private final StockBatchService stockBatchService;
+    private final OrderNotifier orderNotifier;
+    private final ObjectMapper objectMapper;
+
+    public OrderBatchConsumer(StockBatchService stockBatchService, OrderNotifier orderNotifier, ObjectMapper objectMapper) {
+        this.stockBatchService = stockBatchService;
+        this.orderNotifier = orderNotifier;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(topics = TOPIC, groupId = GROUP_ID, containerFactory = "orderBatchListenerContainerFactory")
+    public void consume(List<String> messagesJson, Acknowledgment acknowledgment) {
+        List<OrderEvent> orders = new ArrayList<>(messagesJson.size());
+        for (String messageJson : messagesJson) {
+            try {
+                orders.add(objectMapper.readValue(messageJson, OrderEvent.class));
+            } catch (JsonProcessingException e) {
+                log.warn("Skipping malformed order event: {}", e.getOriginalMessage());
+            }
+        }
+
+        List<OrderEvent> accepted = stockBatchService.takeStock(orders);
+        acknowledgment.acknowledge();
+        log.debug("Stock taken for {} of {} orders", accepted.size(), messagesJson.size());
+
+        for (OrderEvent order : accepted) {
+            try {
+                orderNotifier.orderAccepted(order);
+            } catch (Exception e) {
+                log.error("Could not notify the acceptance of order {}", order, e);
+            }
+        }
+    }
+}
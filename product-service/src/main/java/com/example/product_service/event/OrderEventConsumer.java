@@ -1,23 +1,29 @@
 package com.example.product_service.event;
 
-import java.util.UUID;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
-import com.example.product_service.client.UserClient;
 import com.example.product_service.dto.OrderEvent;
-import com.example.product_service.dto.UserResponse;
+import com.example.product_service.exception.InsufficientStockException;
 import com.example.product_service.service.ProductService;
+import com.example.product_service.stock.HotStockLedger;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 
+/**
+ * Takes the stock of each order as it arrives. Replaced by {@link OrderBatchConsumer} when
+ * {@code orders.consumer.batch.enabled} is set.
+ */
 @Component
+@ConditionalOnProperty(name = "orders.consumer.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class OrderEventConsumer {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderEventConsumer.class);
     private static final String TOPIC = "order-created";
     private static final String GROUP_ID = "product-service-group";
 
@@ -25,50 +31,51 @@ public class OrderEventConsumer {
     private ObjectMapper objectMapper;
 
     private final ProductService productService;
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final UserClient userClient;
+    private final OrderNotifier orderNotifier;
+    private final HotStockLedger hotStockLedger;
 
-    public OrderEventConsumer(ProductService productService, KafkaTemplate<String, String> kafkaTemplate,
-            UserClient userClient) {
+    public OrderEventConsumer(ProductService productService, OrderNotifier orderNotifier, HotStockLedger hotStockLedger) {
         this.productService = productService;
-        this.kafkaTemplate = kafkaTemplate;
-        this.userClient = userClient;
+        this.orderNotifier = orderNotifier;
+        this.hotStockLedger = hotStockLedger;
     }
 
-    @KafkaListener(topics = TOPIC, groupId = GROUP_ID)
-    public void consume(String messageJson) {
+    // A hot product's order is confirmed and its offset acknowledged by the ledger once its reservation is stored
+    @KafkaListener(topics = TOPIC, groupId = GROUP_ID, containerFactory = "orderListenerContainerFactory")
+    public void consume(String messageJson, Acknowledgment acknowledgment) {
+        boolean deferred = false;
         try {
             OrderEvent order = objectMapper.readValue(messageJson, OrderEvent.class);
-            System.out.println("Received order create event: " + order);
-
-            productService.updateProductStock(order.productId(), order.quantity());
-            System.out.println("Product stock updated for product ID: " + order.productId());
-
-            String email = this.getUserById(order.userId()).email();
-            String orderId = UUID.randomUUID().toString();
-
-            String msg = generateJsonMsg(email, orderId);
-
-            kafkaTemplate.send("product-updated", objectMapper.writeValueAsString(msg));
-            System.out.println("Sent product-updated event for order ID: " + orderId + " to email: " + email);
+            log.debug("Received order create event: {}", order);
+
+            if (hotStockLedger.isHot(order.productId())) {
+                if (!hotStockLedger.reserve(order.productId(), order.quantity(), acknowledgment,
+                        () -> notifyAccepted(order))) {
+                    throw new InsufficientStockException("Insufficient stock for product ID: " + order.productId());
+                }
+                deferred = true;
+                log.debug("Stock reserved for hot product ID: {}", order.productId());
+            } else {
+                productService.updateProductStock(order.productId(), order.quantity());
+                log.debug("Product stock updated for product ID: {}", order.productId());
+                orderNotifier.orderAccepted(order);
+            }
+        } catch (InsufficientStockException e) {
+            log.info(e.getMessage());
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Could not process order create event: {}", messageJson, e);
+        } finally {
+            if (!deferred) {
+                acknowledgment.acknowledge();
+            }
         }
     }
 
-    // Method to generate JSON message
-    private String generateJsonMsg(String email, String orderId) throws JsonProcessingException {
-        ObjectNode json = objectMapper.createObjectNode();
-
-        json.put("email", email);
-        json.put("order_id", orderId);
-
-        String jsonString = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(json);
-        return jsonString;
-    }
-
-    // Method to fetch user details using Feign client
-    public UserResponse getUserById(String userId) {
-        return userClient.getUserById(userId);
+    private void notifyAccepted(OrderEvent order) {
+        try {
+            orderNotifier.orderAccepted(order);
+        } catch (JsonProcessingException e) {
+            log.error("Could not notify the acceptance of order {}", order, e);
+        }
     }
-}
\ No newline at end of file
+}
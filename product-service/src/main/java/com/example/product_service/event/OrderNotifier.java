@@ -0,0 +1,95 @@
+package com.example.product_service.event;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.product_service.client.UserClient;
+import com.example.product_service.dto.OrderEvent;
+import com.example.product_service.dto.UserResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tells the email service about an order whose stock was taken, through the product-updated topic.
+ * <p>
+ * The user's email comes from the local {@link UserEmailProjection}, user-service is only called for
+ * users the projection does not know yet. Lookups are counted as {@code orders.user.lookups}, tagged
+ * with the source that answered.
+ * </p>
+ */
+@Component
+public class OrderNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderNotifier.class);
+    private static final String TOPIC = "product-updated";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final UserClient userClient;
+    private final UserEmailProjection userEmails;
+    private final ObjectMapper objectMapper;
+
+    private final Counter projectionLookups;
+    private final Counter remoteLookups;
+
+    public OrderNotifier(KafkaTemplate<String, String> kafkaTemplate, UserClient userClient,
+            UserEmailProjection userEmails, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.userClient = userClient;
+        this.userEmails = userEmails;
+        this.objectMapper = objectMapper;
+        this.projectionLookups = lookupCounter(meterRegistry, "projection");
+        this.remoteLookups = lookupCounter(meterRegistry, "user-service");
+    }
+
+    public void orderAccepted(OrderEvent order) throws JsonProcessingException {
+        String email = emailOf(order.userId());
+        String orderId = UUID.randomUUID().toString();
+
+        String msg = generateJsonMsg(email, orderId);
+
+        kafkaTemplate.send(TOPIC, objectMapper.writeValueAsString(msg));
+        log.debug("Sent product-updated event for order ID: {} to email: {}", orderId, email);
+    }
+
+    // Method to generate JSON message
+    private String generateJsonMsg(String email, String orderId) throws JsonProcessingException {
+        ObjectNode json = objectMapper.createObjectNode();
+
+        json.put("email", email);
+        json.put("order_id", orderId);
+
+        String jsonString = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(json);
+        return jsonString;
+    }
+
+    private String emailOf(String userId) {
+        Optional<String> email = userEmails.emailOf(userId);
+        if (email.isPresent()) {
+            projectionLookups.increment();
+            return email.get();
+        }
+        remoteLookups.increment();
+        return this.getUserById(userId).email();
+    }
+
+    // Method to fetch user details using Feign client
+    public UserResponse getUserById(String userId) {
+        return userClient.getUserById(userId);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("orders.user.lookups")
+                .description("Email lookups of ordering users, by the source that answered")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.product_service.event;
+
+import java.util.List;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lists the partitions of a topic, for listeners that assign themselves every partition instead of
+ * joining a consumer group, e.g.
+ * {@code @TopicPartition(topic = "t", partitions = "#{@partitionFinder.partitions('t')}")}.
+ * <p>
+ * The expression is evaluated while the listener is registered, before {@link KafkaAdmin} creates the
+ * declared topics, so a topic declared as a {@link NewTopic} bean is created here first. The broker
+ * must therefore be reachable at startup. A topic without partitions fails the startup instead of
+ * leaving the listener without an assignment. api-gateway has its own copy of this class, the
+ * services share no library module.
+ * </p>
+ */
+@Component
+public class PartitionFinder {
+
+    private final KafkaAdmin kafkaAdmin;
+    private final ObjectProvider<NewTopic> declaredTopics;
+
+    public PartitionFinder(KafkaAdmin kafkaAdmin, ObjectProvider<NewTopic> declaredTopics) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.declaredTopics = declaredTopics;
+    }
+
+    public String[] partitions(String topic) {
+        declaredTopics.stream()
+                .filter(declared -> declared.name().equals(topic))
+                .findFirst()
+                .ifPresent(kafkaAdmin::createOrModifyTopics);
+
+        List<String> partitions;
+        try {
+            TopicDescription description = kafkaAdmin.describeTopics(topic).get(topic);
+            partitions = description == null ? List.of() : description.partitions().stream()
+                    .map(partition -> String.valueOf(partition.partition()))
+                    .toList();
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Could not list the partitions of topic " + topic, e);
+        }
+        if (partitions.isEmpty()) {
+            throw new IllegalStateException("Topic " + topic + " has no partitions");
+        }
+        return partitions.toArray(String[]::new);
+    }
+}
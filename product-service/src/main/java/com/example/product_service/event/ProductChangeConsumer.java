@@ -0,0 +1,59 @@
+package com.example.product_service.event;
+
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import com.example.product_service.dto.ProductChangeEvent;
+import com.example.product_service.search.ProductSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Applies product writes made by other replicas to the search index of this one.
+ * <p>
+ * Every replica has its own index, so each one assigns itself every partition (see
+ * {@link PartitionFinder}) and reads the events published after it started. The events carry the
+ * product name, stock changes come without one and are skipped. Events of this replica's own writes
+ * are applied again, which costs nothing since an unchanged name is not reindexed.
+ * </p>
+ */
+@Component
+public class ProductChangeConsumer implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeConsumer.class);
+    private static final String TOPIC = "product-changed";
+
+    private final ProductSearchIndex searchIndex;
+    private final ObjectMapper objectMapper;
+
+    public ProductChangeConsumer(ProductSearchIndex searchIndex, ObjectMapper objectMapper) {
+        this.searchIndex = searchIndex;
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(groupId = "product-service-search",
+            topicPartitions = @org.springframework.kafka.annotation.TopicPartition(topic = TOPIC, partitions = "#{@partitionFinder.partitions('" + TOPIC + "')}"))
+    public void consume(String messageJson) {
+        try {
+            ProductChangeEvent event = objectMapper.readValue(messageJson, ProductChangeEvent.class);
+            if (event.type() == ProductChangeEvent.Type.DELETED) {
+                searchIndex.remove(event.productId());
+            } else if (event.name() != null) {
+                searchIndex.put(event.productId(), event.name());
+            }
+        } catch (Exception e) {
+            log.error("Dropping unreadable product change: {}", messageJson, e);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        // The index is loaded from the database at startup, older events need not be replayed
+        callback.seekToEnd(assignments.keySet());
+    }
+}
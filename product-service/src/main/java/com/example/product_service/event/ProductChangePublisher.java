@@ -0,0 +1,45 @@
+package com.example.product_service.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.product_service.dto.ProductChangeEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Publishes a {@link ProductChangeEvent} whenever a product is written, so that copies of product
+ * data held elsewhere (e.g. the api-gateway response cache) can be invalidated.
+ */
+@Component
+public class ProductChangePublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangePublisher.class);
+    public static final String TOPIC = "product-changed";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ProductChangePublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Publishes a change that leaves the product name as it was, e.g. a stock update or a deletion.
+     */
+    public void publish(String productId, ProductChangeEvent.Type type) {
+        publish(productId, type, null);
+    }
+
+    public void publish(String productId, ProductChangeEvent.Type type, String name) {
+        try {
+            // Keyed by product id so the events of one product stay in order
+            kafkaTemplate.send(TOPIC, productId, objectMapper.writeValueAsString(new ProductChangeEvent(productId, type, name)));
+        } catch (JsonProcessingException e) {
+            log.error("Could not publish the {} event of product {}", type, productId, e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.product_service.event;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import com.example.product_service.dto.UserChangeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Email address of every user, kept in memory from the user-changed topic of user-service.
+ * <p>
+ * The topic is compacted, so it holds the latest event of every user. Every replica assigns itself
+ * every partition (see {@link PartitionFinder}) and reads it from the start, and so rebuilds the
+ * whole projection on startup. Until it has
+ * caught up, and for users changed in the last moments, a lookup can miss and callers should ask
+ * user-service instead.
+ * </p>
+ * Only ids and emails are kept, about a hundred bytes per user.
+ */
+@Component
+public class UserEmailProjection implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(UserEmailProjection.class);
+    private static final String TOPIC = "user-changed";
+
+    private final Map<String, String> emails = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+
+    public UserEmailProjection(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @KafkaListener(groupId = "product-service-users",
+            topicPartitions = @org.springframework.kafka.annotation.TopicPartition(topic = TOPIC, partitions = "#{@partitionFinder.partitions('" + TOPIC + "')}"))
+    public void consume(ConsumerRecord<String, String> record) {
+        if (record.key() == null) {
+            return;
+        }
+        if (record.value() == null) {
+            emails.remove(record.key());
+            return;
+        }
+        try {
+            UserChangeEvent event = objectMapper.readValue(record.value(), UserChangeEvent.class);
+            if (event.email() != null) {
+                emails.put(record.key(), event.email());
+            } else {
+                emails.remove(record.key());
+            }
+        } catch (Exception e) {
+            log.error("Dropping unreadable change of user {}", record.key(), e);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        // Committed offsets are shared between replicas, always rebuild the projection from the start
+        callback.seekToBeginning(assignments.keySet());
+    }
+
+    public Optional<String> emailOf(String userId) {
+        return Optional.ofNullable(emails.get(userId));
+    }
+
+    public int size() {
+        return emails.size();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.product_service.exception;
+
+/**
+ * Thrown when the maximum number of catalogue streams is already running.
+ */
+public class ListingBusyException extends RuntimeException {
+    public ListingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.product_service.exception;
+
+/**
+ * Thrown when a full update does not say which version of the product it was based on.
+ */
+public class MissingVersionException extends RuntimeException {
+    public MissingVersionException(String message) {
+        super(message);
+    }
+}
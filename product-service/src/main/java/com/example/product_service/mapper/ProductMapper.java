@@ -22,7 +22,8 @@ public class ProductMapper {
                 product.getName(),
                 product.getDescription(),
                 product.getPrice(),
-                product.getQuantity()
+                product.getQuantity(),
+                product.getVersion()
         );
     }
 }
\ No newline at end of file
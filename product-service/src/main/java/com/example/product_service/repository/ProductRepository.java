@@ -1,11 +1,67 @@
 package com.example.product_service.repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.product_service.dto.ProductResponse;
 import com.example.product_service.model.Product;
+import com.example.product_service.search.ProductName;
 
 public interface ProductRepository extends JpaRepository<Product, String> {
     List<Product> findByNameContainingIgnoreCase(String name);
+
+    /**
+     * Loads a product and locks its row until the end of the transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") String id);
+
+    /**
+     * Takes {@code quantity} units out of stock in a single conditional UPDATE, so concurrent orders can
+     * neither lose a decrement nor take the stock below zero. The version is bumped like any other write.
+     *
+     * @return 1 if the stock was decremented, 0 if the product does not exist or has too little stock.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1"
+            + " where p.id = :id and p.quantity >= :quantity")
+    int decrementStock(@Param("id") String id, @Param("quantity") int quantity);
+
+    /**
+     * A page of products in id order, starting after the given id: a keyset page, which costs the same
+     * for every page unlike an offset.
+     */
+    List<Product> findByIdGreaterThanOrderByIdAsc(String afterId, Limit limit);
+
+    /**
+     * Every product as a DTO, fetched from the database in rows of 500. Projecting to the DTO keeps the
+     * persistence context empty, so memory does not grow with the catalogue. Must be consumed and closed
+     * in a transaction.
+     */
+    @Query("select new com.example.product_service.dto.ProductResponse(p.id, p.name, p.description, p.price, p.quantity, p.version)"
+            + " from Product p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<ProductResponse> streamAll();
+
+    /**
+     * Id and name of every product, for building the search index. Must be consumed and closed in a transaction.
+     */
+    @Query("select new com.example.product_service.search.ProductName(p.id, p.name) from Product p")
+    Stream<ProductName> streamNames();
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.example.product_service.search;
+
+/**
+ * The part of a product the search index needs.
+ */
+public record ProductName(String id, String name) {}
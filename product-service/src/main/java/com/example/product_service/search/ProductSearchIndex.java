@@ -0,0 +1,309 @@
+package com.example.product_service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.product_service.repository.ProductRepository;
+
+/**
+ * In-memory trigram index over product names, answering case-insensitive substring and prefix
+ * searches without the full table scan of a {@code LIKE '%...%'} query.
+ * <p>
+ * Each lower-cased name is split into its trigrams, and every trigram points to the names containing
+ * it. The start of every word is also indexed with a padded gram ({@code "\0\0l"}, {@code "\0la"}),
+ * so prefix queries of one or two characters use the index as well. A query only looks at the names
+ * of its rarest gram and checks each of them, which also ranks them: exact match first, then names
+ * starting with the query, then words starting with it, then other matches, shorter names first.
+ * Substring queries shorter than three characters have no gram and scan all names.
+ * </p>
+ * <p>
+ * The index is loaded once the application is ready and then kept up to date with {@link #put} and
+ * {@link #remove}. Until it is loaded {@link #isReady()} is false and callers should query the database.
+ * Updated and removed names leave a tombstone, the index is compacted once they outnumber live names.
+ * </p>
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final char PAD = '\0';
+    private static final int MIN_COMPACTION = 1024;
+
+    /**
+     * Ranks for matches, lower is better.
+     */
+    private static final int EXACT = 0;
+    private static final int NAME_PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 3;
+    private static final int NO_MATCH = -1;
+
+    private record Hit(int doc, int rank, String name) {}
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator.comparingInt(Hit::rank)
+            .thenComparingInt(h -> h.name().length())
+            .thenComparing(Hit::name);
+
+    private final ProductRepository repository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> docByProduct = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private String[] productIds = new String[1024];
+    private String[] names = new String[1024];
+    private int docCount;
+    private int deletedCount;
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Loads the names of all products, streaming them so the catalogue is never held as entities.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        try (Stream<ProductName> rows = repository.streamNames()) {
+            rows.forEach(row -> put(row.id(), row.name()));
+        }
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Indexes the name of a product, replacing its previous name. Does nothing if the name is unchanged.
+     */
+    public void put(String productId, String name) {
+        final String normalized = normalize(name);
+        lock.writeLock().lock();
+        try {
+            final Integer indexed = docByProduct.get(productId);
+            if (indexed != null && normalized.equals(names[indexed])) {
+                return;
+            }
+            removeLocked(productId);
+            final int doc = docCount++;
+            if (doc == names.length) {
+                names = Arrays.copyOf(names, doc * 2);
+                productIds = Arrays.copyOf(productIds, doc * 2);
+            }
+            names[doc] = normalized;
+            productIds[doc] = productId;
+            docByProduct.put(productId, doc);
+            forEachGram(normalized, gram -> postings.computeIfAbsent(gram, g -> new Postings()).add(doc));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param query  the text to look for, case is ignored.
+     * @param prefix true to only match names or words starting with the query.
+     * @param limit  maximum number of results.
+     * @return ids of the matching products, best matches first.
+     */
+    public List<String> search(String query, boolean prefix, int limit) {
+        final String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // Worst hit on top, so it is the one dropped once the queue is over the limit
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1, BEST_FIRST.reversed());
+        lock.readLock().lock();
+        try {
+            Postings candidates = rarestPostings(q, prefix);
+            if (candidates == null && (prefix || q.length() >= 3)) {
+                // A gram of the query is in no name
+                return List.of();
+            }
+            final int count = candidates != null ? candidates.size : docCount;
+            for (int i = 0; i < count; i++) {
+                final int doc = candidates != null ? candidates.docs[i] : i;
+                if (deleted.get(doc)) {
+                    continue;
+                }
+                final int rank = rank(names[doc], q, prefix);
+                if (rank != NO_MATCH) {
+                    best.add(new Hit(doc, rank, names[doc]));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(BEST_FIRST);
+            List<String> ids = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                ids.add(productIds[hit.doc()]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of indexed products.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Postings rarestPostings(String q, boolean prefix) {
+        Postings rarest = null;
+        if (prefix) {
+            rarest = postings.get(q.length() == 1 ? gram(PAD, PAD, q.charAt(0)) : gram(PAD, q.charAt(0), q.charAt(1)));
+            if (rarest == null) {
+                return null;
+            }
+        }
+        for (int i = 0; i + 3 <= q.length(); i++) {
+            Postings p = postings.get(gram(q.charAt(i), q.charAt(i + 1), q.charAt(i + 2)));
+            if (p == null) {
+                return null;
+            }
+            if (rarest == null || p.size < rarest.size) {
+                rarest = p;
+            }
+        }
+        return rarest;
+    }
+
+    private static int rank(String name, String q, boolean prefix) {
+        if (name.equals(q)) {
+            return EXACT;
+        }
+        if (name.startsWith(q)) {
+            return NAME_PREFIX;
+        }
+        boolean found = false;
+        for (int at = name.indexOf(q, 1); at >= 0; at = name.indexOf(q, at + 1)) {
+            if (!Character.isLetterOrDigit(name.charAt(at - 1))) {
+                return WORD_PREFIX;
+            }
+            found = true;
+        }
+        return found && !prefix ? SUBSTRING : NO_MATCH;
+    }
+
+    private void removeLocked(String productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        deleted.set(doc);
+        names[doc] = null;
+        if (++deletedCount > Math.max(MIN_COMPACTION, docByProduct.size())) {
+            compact();
+        }
+    }
+
+    /**
+     * Rebuilds the index from the live names, dropping the tombstones.
+     */
+    private void compact() {
+        String[] liveIds = new String[docByProduct.size()];
+        String[] liveNames = new String[docByProduct.size()];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!deleted.get(doc)) {
+                liveIds[live] = productIds[doc];
+                liveNames[live] = names[doc];
+                live++;
+            }
+        }
+        postings.clear();
+        docByProduct.clear();
+        deleted.clear();
+        deletedCount = 0;
+        docCount = 0;
+        productIds = new String[Math.max(1024, live * 2)];
+        names = new String[productIds.length];
+        for (int i = 0; i < live; i++) {
+            final int doc = docCount++;
+            names[doc] = liveNames[i];
+            productIds[doc] = liveIds[i];
+            docByProduct.put(liveIds[i], doc);
+            forEachGram(liveNames[i], gram -> postings.computeIfAbsent(gram, g -> new Postings()).add(doc));
+        }
+    }
+
+    private static void forEachGram(String name, GramConsumer consumer) {
+        for (int i = 0; i < name.length(); i++) {
+            if (i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1))) {
+                consumer.accept(gram(PAD, PAD, name.charAt(i)));
+                if (i + 1 < name.length()) {
+                    consumer.accept(gram(PAD, name.charAt(i), name.charAt(i + 1)));
+                }
+            }
+            if (i + 3 <= name.length()) {
+                consumer.accept(gram(name.charAt(i), name.charAt(i + 1), name.charAt(i + 2)));
+            }
+        }
+    }
+
+    private static long gram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    @FunctionalInterface
+    private interface GramConsumer {
+        void accept(long gram);
+    }
+
+    /**
+     * Growable list of the docs containing a gram, in insertion order. A doc is added once per gram
+     * even if the gram occurs several times in its name, since its grams are added consecutively.
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.product_service.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.example.product_service.dto.ProductPage;
 import com.example.product_service.dto.ProductRequest;
 import com.example.product_service.dto.ProductResponse;
+import com.example.product_service.exception.InvalidCursorException;
 
 public interface ProductService {
     ProductResponse createProduct(ProductRequest request);
@@ -12,11 +15,26 @@ public interface ProductService {
 
     void deleteProduct(String id);
 
-    List<ProductResponse> getAllProducts();
+    /**
+     * Passes every product to {@code action}, reading them from the database as it goes.
+     */
+    void forEachProduct(Consumer<ProductResponse> action);
+
+    /**
+     * @param cursor {@code null} for the first page, else the {@link ProductPage#nextCursor()} of the previous page.
+     * @throws InvalidCursorException if the cursor was not issued by this service.
+     */
+    ProductPage getProductPage(String cursor, int limit);
 
     ProductResponse getProduct(String id);
 
-    List<ProductResponse> searchProductsByName(String name);
+    /**
+     * Finds products whose name contains {@code name}, ignoring case, best matches first.
+     *
+     * @param prefix only match names or words of the name starting with {@code name}.
+     * @param limit  maximum number of products returned.
+     */
+    List<ProductResponse> searchProductsByName(String name, boolean prefix, int limit);
 
     ProductResponse updateProductStock(String id, int quantity);
 }
\ No newline at end of file
@@ -1,68 +1,136 @@
 package com.example.product_service.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.example.product_service.config.CacheConfig;
+import com.example.product_service.dto.ProductChangeEvent;
+import com.example.product_service.dto.ProductPage;
 import com.example.product_service.dto.ProductRequest;
 import com.example.product_service.dto.ProductResponse;
+import com.example.product_service.event.ProductChangePublisher;
+import com.example.product_service.exception.InsufficientStockException;
+import com.example.product_service.exception.InvalidCursorException;
+import com.example.product_service.exception.MissingVersionException;
 import com.example.product_service.exception.ProductNotFoundException;
 import com.example.product_service.mapper.ProductMapper;
 import com.example.product_service.model.Product;
 import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.search.ProductSearchIndex;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository repo;
     private final ProductMapper mapper;
+    private final ProductChangePublisher changePublisher;
+    private final ProductSearchIndex searchIndex;
+    private final CacheManager cacheManager;
 
-    public ProductServiceImpl(ProductRepository repo, ProductMapper mapper) {
+    public ProductServiceImpl(ProductRepository repo, ProductMapper mapper, ProductChangePublisher changePublisher,
+            ProductSearchIndex searchIndex, CacheManager cacheManager) {
         this.repo = repo;
         this.mapper = mapper;
+        this.changePublisher = changePublisher;
+        this.searchIndex = searchIndex;
+        this.cacheManager = cacheManager;
     }
 
     @Override
+    // A new product can match cached searches
+    @CacheEvict(value = CacheConfig.PRODUCT_SEARCH, allEntries = true)
     public ProductResponse createProduct(ProductRequest request) {
-        return mapper.toResponse(repo.save(mapper.toEntity(request)));
+        ProductResponse created = mapper.toResponse(repo.save(mapper.toEntity(request)));
+        searchIndex.put(created.id(), created.name());
+        changePublisher.publish(created.id(), ProductChangeEvent.Type.CREATED, created.name());
+        return created;
     }
 
     @Override
-    // Cache product data when updating to keep cache consistent
-    @CachePut(value = "products", key = "#id")
+    // Cache product data when updating to keep cache consistent, cached searches only change with the name
+    @CachePut(value = CacheConfig.PRODUCTS, key = "#id")
     public ProductResponse updateProduct(String id, ProductRequest request) {
+        if (request.version() == null) {
+            throw new MissingVersionException("Updating a product requires the version it was read at");
+        }
         Product found = repo.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product with id " + id + " not found."));
+        // Any write since the client read the product, an order included, makes its copy stale: the
+        // quantity it sends would put sold units back. A write racing this one fails on save instead
+        if (found.getVersion() != request.version()) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, id);
+        }
+        boolean renamed = !Objects.equals(found.getName(), request.name());
 
         found.setName(request.name());
         found.setDescription(request.description());
         found.setPrice(request.price());
         found.setQuantity(request.quantity());
 
-        return mapper.toResponse(repo.save(found));
+        ProductResponse updated = mapper.toResponse(repo.save(found));
+        if (renamed) {
+            searchIndex.put(id, updated.name());
+            cacheManager.getCache(CacheConfig.PRODUCT_SEARCH).clear();
+        }
+        changePublisher.publish(id, ProductChangeEvent.Type.UPDATED, updated.name());
+        return updated;
     }
 
     @Override
     // Evict the cache when a product is deleted
-    @CacheEvict(value = "products", key = "#id")
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.PRODUCTS, key = "#id"),
+            @CacheEvict(value = CacheConfig.PRODUCT_SEARCH, allEntries = true) })
     public void deleteProduct(String id) {
         if (!repo.existsById(id))
             throw new ProductNotFoundException("Product with id " + id + " not found.");
         repo.deleteById(id);
+        searchIndex.remove(id);
+        changePublisher.publish(id, ProductChangeEvent.Type.DELETED);
     }
 
     @Override
-    public List<ProductResponse> getAllProducts() {
-        return repo.findAll().stream().map(mapper::toResponse).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void forEachProduct(Consumer<ProductResponse> action) {
+        try (Stream<ProductResponse> products = repo.streamAll()) {
+            products.forEach(action);
+        }
+    }
+
+    @Override
+    public ProductPage getProductPage(String cursor, int limit) {
+        String afterId = cursor == null ? "" : decodeCursor(cursor);
+        // One more than asked, to know whether there is a next page
+        List<Product> found = repo.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1));
+        List<ProductResponse> items = found.stream().limit(limit).map(mapper::toResponse).toList();
+        String nextCursor = found.size() > limit ? encodeCursor(items.get(items.size() - 1).id()) : null;
+        return new ProductPage(items, nextCursor);
     }
 
     @Override
     // Cache product data by id to improve performance
-    @Cacheable(value = "products", key = "#id")
+    @Cacheable(value = CacheConfig.PRODUCTS, key = "#id")
     public ProductResponse getProduct(String id) {
         return mapper.toResponse(
                 repo.findById(id).orElseThrow(
@@ -70,23 +138,102 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    // Cache product data by name to improve performance
-    @Cacheable(value = "products", key = "#name")
-    public List<ProductResponse> searchProductsByName(String name) {
-        return repo.findByNameContainingIgnoreCase(name).stream().map(mapper::toResponse).toList();
+    public List<ProductResponse> searchProductsByName(String name, boolean prefix, int limit) {
+        // The search region only holds the matching ids, the products come from their own region, so
+        // stock and price changes do not invalidate search results. The search ignores case and so does the key
+        String key = name.toLowerCase(Locale.ROOT) + ':' + prefix + ':' + limit;
+        List<String> ids = cacheManager.getCache(CacheConfig.PRODUCT_SEARCH).get(key, () -> findMatchingIds(name, prefix, limit));
+        return resolve(ids);
+    }
+
+    private List<String> findMatchingIds(String name, boolean prefix, int limit) {
+        if (searchIndex.isReady()) {
+            return searchIndex.search(name, prefix, limit);
+        }
+        // Still loading the index at startup, fall back to the (unranked) database search
+        String lowerCaseName = name.toLowerCase(Locale.ROOT);
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        List<ProductResponse> matches = repo.findByNameContainingIgnoreCase(name).stream()
+                .filter(p -> !prefix || p.getName().toLowerCase(Locale.ROOT).startsWith(lowerCaseName))
+                .limit(limit)
+                .map(mapper::toResponse)
+                .toList();
+        matches.forEach(product -> products.put(product.id(), product));
+        return matches.stream().map(ProductResponse::id).toList();
+    }
+
+    /**
+     * Looks the products up in the products region, loading the missing ones with a single query.
+     * Keeps the order of the ids and skips products deleted in the meantime.
+     */
+    private List<ProductResponse> resolve(List<String> ids) {
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        Map<String, ProductResponse> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            ProductResponse cached = products.get(id, ProductResponse.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Product product : repo.findAllById(missing)) {
+                ProductResponse loaded = mapper.toResponse(product);
+                products.put(loaded.id(), loaded);
+                found.put(loaded.id(), loaded);
+            }
+        }
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    private static String encodeCursor(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
     }
 
     @Override
-    // Cache product data when updating to keep cache consistent
-    @CachePut(value = "products", key = "#id")
+    @Transactional
     public ProductResponse updateProductStock(String id, int quantity) {
-        return repo.findById(id).map(product -> {
-            int newQuantity = product.getQuantity() - quantity;
-            if (newQuantity < 0) {
-                throw new IllegalArgumentException("Insufficient stock for product ID: " + id);
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity to take out of stock must be positive, got " + quantity);
+        }
+        // The check and the decrement are one statement, the row lock serialises concurrent orders
+        if (repo.decrementStock(id, quantity) == 0) {
+            if (!repo.existsById(id)) {
+                throw new ProductNotFoundException("Product with id " + id + " not found.");
+            }
+            throw new InsufficientStockException("Insufficient stock for product ID: " + id);
+        }
+        ProductResponse updated = repo.findById(id).map(mapper::toResponse)
+                .orElseThrow(() -> new ProductNotFoundException("Product with id " + id + " not found."));
+        // Nobody may see the new stock before it is committed. The cached product is evicted rather
+        // than replaced, a put after commit could still overtake the one of a later update
+        afterCommit(() -> {
+            cacheManager.getCache(CacheConfig.PRODUCTS).evict(id);
+            changePublisher.publish(id, ProductChangeEvent.Type.UPDATED);
+        });
+        return updated;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
             }
-            product.setQuantity(newQuantity);
-            return mapper.toResponse(repo.save(product));
-        }).orElseThrow(() -> new ProductNotFoundException("Product with id " + id + " not found."));
+        });
     }
 }
\ No newline at end of file
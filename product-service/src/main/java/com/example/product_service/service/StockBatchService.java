@@ -0,0 +1,105 @@
+package com.example.product_service.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.config.CacheConfig;
+import com.example.product_service.dto.OrderEvent;
+import com.example.product_service.dto.ProductChangeEvent;
+import com.example.product_service.event.ProductChangePublisher;
+import com.example.product_service.model.Product;
+import com.example.product_service.repository.ProductRepository;
+
+/**
+ * Takes the stock of a batch of orders with one decrement per product instead of one per order.
+ * <p>
+ * Orders for a quantity that is not positive are refused. The orders of each product are added up and taken out with a single conditional decrement. If the
+ * product has too little stock for all of them, its row is locked and orders are accepted in arrival
+ * order for as long as the stock lasts. Every product of the batch is written in one transaction,
+ * after which the cached copies of the products are dropped and their change events published.
+ * </p>
+ */
+@Service
+public class StockBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockBatchService.class);
+
+    private final ProductRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ProductChangePublisher changePublisher;
+
+    public StockBatchService(ProductRepository repository, PlatformTransactionManager transactionManager,
+            CacheManager cacheManager, ProductChangePublisher changePublisher) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.changePublisher = changePublisher;
+    }
+
+    /**
+     * @return the orders whose stock was taken, in arrival order per product. The others are for
+     *         unknown products, for no positive quantity, or came after the stock ran out.
+     */
+    public List<OrderEvent> takeStock(List<OrderEvent> orders) {
+        Map<String, List<OrderEvent>> byProduct = new LinkedHashMap<>();
+        for (OrderEvent order : orders) {
+            // Would add stock back, or hide another order's quantity in the product's total
+            if (order.quantity() <= 0) {
+                log.warn("Refusing order with quantity {} for product ID: {}", order.quantity(), order.productId());
+                continue;
+            }
+            byProduct.computeIfAbsent(order.productId(), id -> new ArrayList<>()).add(order);
+        }
+
+        List<String> changed = new ArrayList<>(byProduct.size());
+        List<OrderEvent> accepted = transactionTemplate.execute(status -> {
+            List<OrderEvent> taken = new ArrayList<>(orders.size());
+            byProduct.forEach((productId, productOrders) -> {
+                int total = productOrders.stream().mapToInt(OrderEvent::quantity).sum();
+                if (repository.decrementStock(productId, total) == 1) {
+                    taken.addAll(productOrders);
+                    changed.add(productId);
+                } else if (takeWhileInStock(productId, productOrders, taken)) {
+                    changed.add(productId);
+                }
+            });
+            return taken;
+        });
+
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (!changed.isEmpty()) {
+            changed.forEach(products::evict);
+            changed.forEach(id -> changePublisher.publish(id, ProductChangeEvent.Type.UPDATED));
+        }
+        return accepted;
+    }
+
+    private boolean takeWhileInStock(String productId, List<OrderEvent> productOrders, List<OrderEvent> taken) {
+        Product product = repository.findByIdForUpdate(productId).orElse(null);
+        if (product == null) {
+            log.warn("Skipping {} orders for unknown product ID: {}", productOrders.size(), productId);
+            return false;
+        }
+        int available = product.getQuantity();
+        int total = 0;
+        for (OrderEvent order : productOrders) {
+            if (order.quantity() <= available - total) {
+                total += order.quantity();
+                taken.add(order);
+            }
+        }
+        // The row is locked, the decrement cannot fail
+        return total > 0 && repository.decrementStock(productId, total) == 1;
+    }
+}
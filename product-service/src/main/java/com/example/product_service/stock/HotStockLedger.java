@@ -0,0 +1,270 @@
+package com.example.product_service.stock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.product_service.exception.InsufficientStockException;
+import com.example.product_service.exception.ProductNotFoundException;
+import com.example.product_service.model.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.ProductService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory stock of the products flagged as hot, e.g. during a flash sale.
+ * <p>
+ * Orders for a hot product are accepted or refused against a counter held in memory instead of
+ * locking its row once per order. The accepted quantities add up to a pending delta that is written
+ * to the database every {@code stock.hot.flush-interval} with one conditional decrement, after which
+ * the counter is resynced with the stored level so restocks made meanwhile are picked up.
+ * </p>
+ * <p>
+ * The order messages of an accepted reservation are only acknowledged, and the order only confirmed,
+ * once its delta is stored. If the replica dies before a flush, the offsets of its pending
+ * reservations were never committed and they are replayed against the stored level by whichever
+ * replica takes the partition over. A crash between a flush and the offset commit replays already
+ * stored reservations, so delivery is at least once: stock may be under-sold by those orders and
+ * their confirmation sent twice, stock is never over-sold. If the stored level was lowered below the
+ * pending delta, the earliest reservations that still fit are stored and the others are refused.
+ * Orders are keyed by product, so one consumer owns each hot product at a time. Ledgers are flushed
+ * and dropped whenever partitions are revoked, see {@link #flushAndReset()}.
+ * </p>
+ */
+@Component
+public class HotStockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockLedger.class);
+
+    private final ProductService productService;
+    private final ProductRepository repository;
+    private final Set<String> hotProducts;
+    private final Map<String, Ledger> ledgers = new ConcurrentHashMap<>();
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter revoked;
+
+    public HotStockLedger(ProductService productService, ProductRepository repository, MeterRegistry meterRegistry,
+            @Value("${stock.hot.products:}") String hotProducts) {
+        this.productService = productService;
+        this.repository = repository;
+        this.hotProducts = Arrays.stream(hotProducts.split(","))
+                .map(String::strip)
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.accepted = reservationCounter(meterRegistry, "accepted");
+        this.rejected = reservationCounter(meterRegistry, "rejected");
+        this.revoked = reservationCounter(meterRegistry, "revoked");
+    }
+
+    public boolean isHot(String productId) {
+        return hotProducts.contains(productId);
+    }
+
+    /**
+     * Takes {@code quantity} units of a hot product out of the in-memory stock.
+     *
+     * @param acknowledgment acknowledged once the reservation is stored or refused by a flush, not
+     *                       when it is refused right away.
+     * @param onStored       run by the flush that stored the reservation, before acknowledging it.
+     * @return true if the reservation was accepted, false if there is not enough stock.
+     * @throws IllegalArgumentException if {@code quantity} is not positive, it would add stock back.
+     */
+    public boolean reserve(String productId, int quantity, Acknowledgment acknowledgment, Runnable onStored) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity to take out of stock must be positive, got " + quantity);
+        }
+        Ledger ledger = ledgers.computeIfAbsent(productId, this::load);
+        if (ledger.reserve(new Reservation(quantity, acknowledgment, onStored))) {
+            accepted.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * @return the in-memory stock of a hot product, or -1 if it has not been loaded.
+     */
+    public long available(String productId) {
+        Ledger ledger = ledgers.get(productId);
+        return ledger == null ? -1 : ledger.available();
+    }
+
+    @Scheduled(fixedDelayString = "${stock.hot.flush-interval:200ms}")
+    public synchronized void flush() {
+        ledgers.forEach(this::flush);
+    }
+
+    /**
+     * Stores every pending delta and drops the ledgers, so the next reservation reloads the stored
+     * level. Called when partitions are revoked, since another replica may own their products next.
+     */
+    public synchronized void flushAndReset() {
+        ledgers.forEach(this::flush);
+        ledgers.clear();
+    }
+
+    private void flush(String productId, Ledger ledger) {
+        List<Reservation> taken = ledger.takePending();
+        List<Reservation> stored = taken;
+        List<Reservation> refused = new ArrayList<>();
+        try {
+            int quantity = total(taken);
+            try {
+                ledger.resync(quantity > 0
+                        ? productService.updateProductStock(productId, quantity).quantity()
+                        : storedQuantity(productId));
+            } catch (InsufficientStockException e) {
+                // The stored level was lowered below the pending delta, store the earliest reservations that fit
+                int level = storedQuantity(productId);
+                List<Reservation> fitting = new ArrayList<>(taken.size());
+                int fittingQuantity = 0;
+                for (Reservation reservation : taken) {
+                    if (reservation.quantity() <= level - fittingQuantity) {
+                        fittingQuantity += reservation.quantity();
+                        fitting.add(reservation);
+                    } else {
+                        refused.add(reservation);
+                    }
+                }
+                ledger.resync(fittingQuantity > 0
+                        ? productService.updateProductStock(productId, fittingQuantity).quantity()
+                        : level);
+                stored = fitting;
+            }
+        } catch (ProductNotFoundException e) {
+            ledgers.remove(productId);
+            refused = new ArrayList<>(taken);
+            refused.addAll(ledger.close());
+            refuse(productId, refused);
+            return;
+        } catch (RuntimeException e) {
+            // Keep the reservations and their offsets for the next flush
+            ledger.restore(taken);
+            log.error("Could not store the reservations of hot product {}, retrying on the next flush", productId, e);
+            return;
+        }
+        for (Reservation reservation : stored) {
+            try {
+                reservation.onStored().run();
+            } catch (RuntimeException e) {
+                log.error("Stored reservation of hot product {} could not be completed", productId, e);
+            }
+            reservation.acknowledgment().acknowledge();
+        }
+        refuse(productId, refused);
+    }
+
+    /**
+     * Acknowledges reservations that cannot be stored, their orders are refused like those for which
+     * there was not enough stock in the first place.
+     */
+    private void refuse(String productId, List<Reservation> refused) {
+        if (refused.isEmpty()) {
+            return;
+        }
+        log.warn("Refusing {} orders of hot product {} ({} units), its stock was lowered or it was deleted",
+                refused.size(), productId, total(refused));
+        revoked.increment(refused.size());
+        refused.forEach(reservation -> reservation.acknowledgment().acknowledge());
+    }
+
+    private int storedQuantity(String productId) {
+        return repository.findById(productId).map(Product::getQuantity)
+                .orElseThrow(() -> new ProductNotFoundException("Product with id " + productId + " not found."));
+    }
+
+    private Ledger load(String productId) {
+        return new Ledger(storedQuantity(productId));
+    }
+
+    private static int total(List<Reservation> reservations) {
+        return reservations.stream().mapToInt(Reservation::quantity).sum();
+    }
+
+    private static Counter reservationCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("stock.hot.reservations")
+                .description("Reservations of hot products answered from memory")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Reservation(int quantity, Acknowledgment acknowledgment, Runnable onStored) {}
+
+    /**
+     * Stock of one hot product. Reservations normally come from the single consumer of the product's
+     * partition, the lock is only contended by the flush.
+     */
+    private static final class Ledger {
+        private long available;
+        private int pending;
+        private List<Reservation> reservations = new ArrayList<>();
+        private boolean closed;
+
+        Ledger(long available) {
+            this.available = available;
+        }
+
+        synchronized boolean reserve(Reservation reservation) {
+            if (closed || reservation.quantity() <= 0 || reservation.quantity() > available) {
+                return false;
+            }
+            available -= reservation.quantity();
+            pending += reservation.quantity();
+            reservations.add(reservation);
+            return true;
+        }
+
+        synchronized long available() {
+            return available;
+        }
+
+        synchronized List<Reservation> takePending() {
+            List<Reservation> taken = reservations;
+            pending = 0;
+            reservations = new ArrayList<>();
+            return taken;
+        }
+
+        /**
+         * Puts back reservations that could not be stored, ahead of the ones made since.
+         */
+        synchronized void restore(List<Reservation> taken) {
+            pending += total(taken);
+            taken.addAll(reservations);
+            reservations = taken;
+        }
+
+        /**
+         * Refuses any further reservation, for a product that no longer exists.
+         *
+         * @return the reservations made since the last {@link #takePending()}.
+         */
+        synchronized List<Reservation> close() {
+            closed = true;
+            return takePending();
+        }
+
+        /**
+         * @param stored the stored level, which includes every delta taken so far.
+         */
+        synchronized void resync(long stored) {
+            available = stored - pending;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.product_service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TwoTierCacheTests {
+
+	private final ConcurrentMapCacheManager redis = new ConcurrentMapCacheManager();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final List<String> published = new ArrayList<>();
+
+	private final TwoTierCacheManager replicaA = manager(new SimpleMeterRegistry());
+	private final TwoTierCacheManager replicaB = manager(registry);
+
+	@Test
+	void servesRepeatedReadsFromLocalTier() {
+		redis.getCache("products").put("p1", "laptop");
+		Cache cache = replicaB.getCache("products");
+
+		assertEquals("laptop", cache.get("p1").get());
+		assertEquals("laptop", cache.get("p1").get());
+		assertNull(cache.get("p2"));
+
+		assertEquals(1, count("l1", "hit"));
+		assertEquals(2, count("l1", "miss"));
+		assertEquals(1, count("l2", "hit"));
+		assertEquals(1, count("l2", "miss"));
+	}
+
+	@Test
+	void writeOnOneReplicaEvictsLocalCopyOfOthers() {
+		Cache cacheA = replicaA.getCache("products");
+		Cache cacheB = replicaB.getCache("products");
+		cacheA.put("p1", "v1");
+		assertEquals("v1", cacheB.get("p1").get());
+
+		cacheA.put("p1", "v2");
+		// Without the invalidation B keeps serving its local copy
+		assertEquals("v1", cacheB.get("p1").get());
+		deliver(replicaB);
+		assertEquals("v2", cacheB.get("p1").get());
+
+		cacheA.evict("p1");
+		deliver(replicaB);
+		assertNull(cacheB.get("p1"));
+	}
+
+	@Test
+	void clearIsPublishedWithoutKey() {
+		Cache cacheA = replicaA.getCache("products");
+		Cache cacheB = replicaB.getCache("products");
+		cacheA.put("p1", "v1");
+		cacheB.get("p1");
+
+		cacheA.clear();
+		deliver(replicaB);
+
+		assertNull(cacheB.get("p1"));
+		assertEquals(List.of("products:p1", "products:null"), published);
+	}
+
+	@Test
+	void concurrentMissesRunTheLoaderOnce() throws Exception {
+		Cache cache = replicaB.getCache("products");
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> cache.get("p1", () -> {
+					loads.incrementAndGet();
+					release.await();
+					return "laptop";
+				})));
+			}
+			Thread.sleep(100);
+			release.countDown();
+
+			for (Future<String> result : results) {
+				assertEquals("laptop", result.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(1, loads.get());
+			assertEquals("laptop", redis.getCache("products").get("p1").get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private TwoTierCacheManager manager(SimpleMeterRegistry meterRegistry) {
+		return new TwoTierCacheManager(redis, new TwoTierCacheManager.LocalSpec(100, Duration.ofMinutes(1)), Map.of(),
+				(cache, key) -> published.add(cache + ":" + key), meterRegistry);
+	}
+
+	private void deliver(TwoTierCacheManager replica) {
+		String last = published.get(published.size() - 1);
+		String key = last.substring(last.indexOf(':') + 1);
+		replica.onRemoteInvalidation("products", key.equals("null") ? null : key);
+	}
+
+	private double count(String tier, String result) {
+		return registry.get("cache.tier.gets").tags("tier", tier, "result", result).counter().count();
+	}
+}
@@ -0,0 +1,179 @@
+package com.example.product_service.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.product_service.config.CacheConfig;
+import com.example.product_service.dto.OrderEvent;
+import com.example.product_service.exception.InsufficientStockException;
+import com.example.product_service.mapper.ProductMapper;
+import com.example.product_service.model.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.search.ProductSearchIndex;
+import com.example.product_service.service.ProductService;
+import com.example.product_service.service.ProductServiceImpl;
+import com.example.product_service.service.StockBatchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares consuming order events one at a time, as {@link OrderEventConsumer} does, with consuming
+ * them in batches, as {@link OrderBatchConsumer} does, through an embedded broker into H2.
+ * <p>
+ * Only the stock path is measured, notifying the user needs user-service. Slow, so only run on
+ * request: {@code mvn test -Dtest=OrderConsumerBenchmarkTests -Dbenchmark=true}
+ * </p>
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EmbeddedKafka(partitions = 4)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:order-benchmark",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=" })
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OrderConsumerBenchmarkTests {
+
+	private static final int ORDERS = 20_000;
+	private static final int PRODUCTS = 20;
+	private static final int STOCK = 1_000_000;
+	private static final int BATCH_SIZE = 500;
+
+	@Autowired
+	private EmbeddedKafkaBroker broker;
+
+	@Autowired
+	private ProductRepository repository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void batchAgainstPerRecordConsumer() throws Exception {
+		ProductService productService = new ProductServiceImpl(repository, new ProductMapper(),
+				mock(ProductChangePublisher.class), new ProductSearchIndex(repository),
+				new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCT_SEARCH));
+		StockBatchService stockBatchService = new StockBatchService(repository, transactionManager,
+				new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCT_SEARCH),
+				mock(ProductChangePublisher.class));
+
+		List<String> recordProducts = saveProducts("record");
+		long recordMillis = run("orders-record", recordProducts, false, latch -> (MessageListener<String, String>) record -> {
+			OrderEvent order = read(record.value());
+			try {
+				productService.updateProductStock(order.productId(), order.quantity());
+			} catch (InsufficientStockException e) {
+				// Counted like any other order
+			}
+			latch.countDown();
+		});
+
+		List<String> batchProducts = saveProducts("batch");
+		long batchMillis = run("orders-batch", batchProducts, true, latch -> (BatchMessageListener<String, String>) records -> {
+			List<OrderEvent> orders = new ArrayList<>(records.size());
+			for (ConsumerRecord<String, String> record : records) {
+				orders.add(read(record.value()));
+			}
+			stockBatchService.takeStock(orders);
+			records.forEach(r -> latch.countDown());
+		});
+
+		System.out.printf("%n%,d orders over %d products%n", ORDERS, PRODUCTS);
+		System.out.printf("%-12s %10s %14s%n", "consumer", "ms", "orders/s");
+		System.out.printf("%-12s %,10d %,14d%n", "per record", recordMillis, ORDERS * 1000L / Math.max(1, recordMillis));
+		System.out.printf("%-12s %,10d %,14d%n", "batch", batchMillis, ORDERS * 1000L / Math.max(1, batchMillis));
+
+		// Both took every order
+		assertEquals(totalStock(recordProducts), totalStock(batchProducts));
+		assertEquals((long) PRODUCTS * STOCK - ORDERS, totalStock(batchProducts));
+	}
+
+	private long run(String topic, List<String> products, boolean batch,
+			Function<CountDownLatch, Object> listener) throws Exception {
+		broker.addTopics(topic);
+		Map<String, Object> producerProps = KafkaTestUtils.producerProps(broker);
+		producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+		KafkaTemplate<String, String> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(producerProps));
+		for (int i = 0; i < ORDERS; i++) {
+			String productId = products.get(i % products.size());
+			template.send(topic, productId, objectMapper.writeValueAsString(new OrderEvent(productId, 1, "user-1")));
+		}
+		template.flush();
+
+		Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(topic + "-group", "false", broker);
+		consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+		consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+		consumerProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batch ? BATCH_SIZE : 500);
+		ContainerProperties containerProperties = new ContainerProperties(topic);
+		// Offsets are committed once per poll in both modes, as the manual acknowledgments of the record consumer are
+		containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+		CountDownLatch latch = new CountDownLatch(ORDERS);
+		containerProperties.setMessageListener(listener.apply(latch));
+		KafkaMessageListenerContainer<String, String> container = new KafkaMessageListenerContainer<>(
+				new DefaultKafkaConsumerFactory<>(consumerProps), containerProperties);
+
+		long start = System.nanoTime();
+		container.start();
+		try {
+			assertTrue(latch.await(10, TimeUnit.MINUTES), "Orders were not all consumed");
+			return (System.nanoTime() - start) / 1_000_000;
+		} finally {
+			container.stop();
+		}
+	}
+
+	private List<String> saveProducts(String prefix) {
+		List<String> ids = new ArrayList<>(PRODUCTS);
+		for (int i = 0; i < PRODUCTS; i++) {
+			ids.add(repository.save(Product.builder().name(prefix + " " + i).price(1.0).quantity(STOCK).build()).getId());
+		}
+		return ids;
+	}
+
+	private long totalStock(List<String> ids) {
+		return repository.findAllById(ids).stream().mapToLong(Product::getQuantity).sum();
+	}
+
+	private OrderEvent read(String json) {
+		try {
+			return objectMapper.readValue(json, OrderEvent.class);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
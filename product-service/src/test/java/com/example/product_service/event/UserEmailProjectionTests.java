@@ -0,0 +1,72 @@
+package com.example.product_service.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.example.product_service.client.UserClient;
+import com.example.product_service.dto.OrderEvent;
+import com.example.product_service.dto.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserEmailProjectionTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final UserEmailProjection projection = new UserEmailProjection(objectMapper);
+
+	@Test
+	void keepsLatestEmailAndForgetsDeletedUsers() {
+		projection.consume(record("u1", "{\"id\":\"u1\",\"email\":\"old@example.com\"}"));
+		projection.consume(record("u2", "{\"id\":\"u2\",\"email\":\"two@example.com\"}"));
+		projection.consume(record("u1", "{\"id\":\"u1\",\"email\":\"new@example.com\"}"));
+		projection.consume(record("u2", null));
+
+		assertEquals(Optional.of("new@example.com"), projection.emailOf("u1"));
+		assertEquals(Optional.empty(), projection.emailOf("u2"));
+		assertEquals(1, projection.size());
+	}
+
+	@Test
+	void ignoresMalformedEvents() {
+		projection.consume(record("u1", "{\"id\":\"u1\",\"email\":\"one@example.com\"}"));
+		projection.consume(record("u1", "not json"));
+
+		assertEquals(Optional.of("one@example.com"), projection.emailOf("u1"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void notifierOnlyCallsUserServiceForUnknownUsers() throws Exception {
+		KafkaTemplate<String, String> kafkaTemplate = mock(KafkaTemplate.class);
+		UserClient userClient = mock(UserClient.class);
+		when(userClient.getUserById("u2")).thenReturn(new UserResponse("u2", "Two", "two@example.com"));
+		OrderNotifier notifier = new OrderNotifier(kafkaTemplate, userClient, projection, objectMapper, new SimpleMeterRegistry());
+		projection.consume(record("u1", "{\"id\":\"u1\",\"email\":\"one@example.com\"}"));
+
+		notifier.orderAccepted(new OrderEvent("p1", 1, "u1"));
+		verify(userClient, never()).getUserById(anyString());
+		verify(kafkaTemplate).send(eq("product-updated"), contains("one@example.com"));
+
+		notifier.orderAccepted(new OrderEvent("p1", 1, "u2"));
+		verify(userClient).getUserById("u2");
+		verify(kafkaTemplate).send(any(), contains("two@example.com"));
+	}
+
+	private static ConsumerRecord<String, String> record(String key, String value) {
+		return new ConsumerRecord<>("user-changed", 0, 0, key, value);
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.product_service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.product_service.model.Product;
+import com.example.product_service.repository.ProductRepository;
+
+/**
+ * Compares {@link ProductSearchIndex} with the {@code LIKE '%...%'} query of
+ * {@link ProductRepository#findByNameContainingIgnoreCase} on an in-memory H2 catalogue.
+ * <p>
+ * Slow, so only run on request: {@code mvn test -Dtest=ProductSearchBenchmarkTests -Dbenchmark=true}
+ * </p>
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search-benchmark",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=" })
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ProductSearchBenchmarkTests {
+
+	private static final String[] BRANDS = { "Acme", "Globex", "Initech", "Umbrella", "Stark", "Wayne", "Hooli", "Vandelay" };
+	private static final String[] ADJECTIVES = { "Ultra", "Pro", "Mini", "Max", "Slim", "Smart", "Wireless", "Gaming", "Portable", "Classic" };
+	private static final String[] NOUNS = { "Laptop", "Keyboard", "Mouse", "Monitor", "Headset", "Speaker", "Camera", "Charger", "Tablet", "Router", "Backpack", "Webcam" };
+	private static final List<String> QUERIES = List.of("laptop", "pro", "wireless mouse", "stark", "x12", "ultra slim", "zz");
+	private static final int LIMIT = 20;
+	private static final int ROUNDS = 5;
+
+	@Autowired
+	private ProductRepository repository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@ParameterizedTest
+	@ValueSource(ints = { 10_000, 100_000, 1_000_000 })
+	void indexAgainstLikeQuery(int products) {
+		insertProducts(products);
+		ProductSearchIndex index = new ProductSearchIndex(repository);
+		long loadStart = System.nanoTime();
+		index.load();
+		long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+
+		System.out.printf("%n%,d products, index loaded in %,d ms%n", products, loadMillis);
+		System.out.printf("%-16s %10s %12s %12s%n", "query", "matches", "like (us)", "index (us)");
+		for (String query : QUERIES) {
+			List<Product> likeResult = null;
+			List<String> indexResult = null;
+			long likeNanos = 0;
+			long indexNanos = 0;
+			// First round warms up, it is not counted
+			for (int round = 0; round <= ROUNDS; round++) {
+				long start = System.nanoTime();
+				likeResult = repository.findByNameContainingIgnoreCase(query);
+				long mid = System.nanoTime();
+				indexResult = index.search(query, false, LIMIT);
+				long end = System.nanoTime();
+				if (round > 0) {
+					likeNanos += mid - start;
+					indexNanos += end - mid;
+				}
+			}
+			Set<String> likeIds = likeResult.stream().map(Product::getId).collect(Collectors.toSet());
+			assertEquals(Math.min(LIMIT, likeIds.size()), indexResult.size(), query);
+			assertTrue(likeIds.containsAll(indexResult), query);
+			System.out.printf("%-16s %,10d %,12d %,12d%n", query, likeIds.size(),
+					likeNanos / ROUNDS / 1000, indexNanos / ROUNDS / 1000);
+		}
+	}
+
+	private void insertProducts(int count) {
+		Random random = new Random(42);
+		List<Object[]> batch = new ArrayList<>(10_000);
+		for (int i = 0; i < count; i++) {
+			String name = BRANDS[random.nextInt(BRANDS.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+					+ NOUNS[random.nextInt(NOUNS.length)] + " X" + random.nextInt(10_000);
+			batch.add(new Object[] { UUID.randomUUID().toString(), name, "", 10.0 + random.nextInt(1000), 1 + random.nextInt(100) });
+			if (batch.size() == 10_000 || i == count - 1) {
+				jdbcTemplate.batchUpdate("insert into products (id, name, description, price, quantity) values (?, ?, ?, ?, ?)", batch);
+				batch.clear();
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.product_service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.product_service.repository.ProductRepository;
+
+class ProductSearchIndexTests {
+
+	private final ProductSearchIndex index = new ProductSearchIndex(mock(ProductRepository.class));
+
+	@BeforeEach
+	void setUp() {
+		index.put("1", "Gaming Laptop Pro");
+		index.put("2", "Laptop");
+		index.put("3", "Laptop Sleeve");
+		index.put("4", "Wireless Mouse");
+		index.put("5", "Flaptop Stand");
+	}
+
+	@Test
+	void ranksExactThenPrefixThenWordThenSubstring() {
+		assertEquals(List.of("2", "3", "1", "5"), index.search("LAPTOP", false, 10));
+		assertEquals(List.of("2", "3"), index.search("laptop", false, 2));
+	}
+
+	@Test
+	void prefixQueriesOnlyMatchWordStarts() {
+		assertEquals(List.of("2", "3", "1"), index.search("lap", true, 10));
+		assertEquals(List.of("4"), index.search("m", true, 10));
+		assertEquals(List.of("4"), index.search("wi", true, 10));
+		assertEquals(List.of(), index.search("aptop", true, 10));
+	}
+
+	@Test
+	void shortSubstringQueriesScanAllNames() {
+		assertEquals(List.of("4"), index.search("us", false, 10));
+		assertEquals(List.of(), index.search("zz", false, 10));
+	}
+
+	@Test
+	void followsUpdatesAndRemovals() {
+		index.put("2", "Notebook");
+		index.remove("3");
+
+		assertEquals(List.of("1", "5"), index.search("laptop", false, 10));
+		assertEquals(List.of("2"), index.search("note", true, 10));
+		assertEquals(4, index.size());
+	}
+
+	@Test
+	void compactsAfterManyUpdates() {
+		for (int i = 0; i < 5000; i++) {
+			index.put("2", "Laptop " + i);
+		}
+
+		assertEquals(List.of("2"), index.search("laptop 4999", false, 10));
+		assertEquals(List.of("2", "3", "1", "5"), index.search("laptop", false, 10));
+		assertEquals(5, index.size());
+	}
+}
@@ -0,0 +1,84 @@
+package com.example.product_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.product_service.config.CacheConfig;
+import com.example.product_service.dto.ProductPage;
+import com.example.product_service.dto.ProductResponse;
+import com.example.product_service.event.ProductChangePublisher;
+import com.example.product_service.exception.InvalidCursorException;
+import com.example.product_service.mapper.ProductMapper;
+import com.example.product_service.model.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.search.ProductSearchIndex;
+
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-listing",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=" })
+class ProductListingTests {
+
+	@Autowired
+	private ProductRepository repository;
+
+	private ProductService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new ProductServiceImpl(repository, new ProductMapper(), mock(ProductChangePublisher.class),
+				new ProductSearchIndex(repository), new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCT_SEARCH));
+		for (int i = 0; i < 5; i++) {
+			repository.save(Product.builder().name("Product " + i).price(10.0).quantity(i).build());
+		}
+	}
+
+	@Test
+	void pagesThroughCatalogueInIdOrder() {
+		List<String> ids = new ArrayList<>();
+		ProductPage page = service.getProductPage(null, 2);
+		int pages = 1;
+		while (true) {
+			page.items().forEach(p -> ids.add(p.id()));
+			if (page.nextCursor() == null) {
+				break;
+			}
+			page = service.getProductPage(page.nextCursor(), 2);
+			pages++;
+		}
+
+		assertEquals(3, pages);
+		assertEquals(repository.findAll().stream().map(Product::getId).sorted().toList(), ids);
+	}
+
+	@Test
+	void lastFullPageHasNoCursor() {
+		assertNull(service.getProductPage(null, 5).nextCursor());
+	}
+
+	@Test
+	void rejectsMalformedCursor() {
+		assertThrows(InvalidCursorException.class, () -> service.getProductPage("not base64!", 2));
+	}
+
+	@Test
+	void streamsEveryProduct() {
+		List<ProductResponse> streamed = new ArrayList<>();
+		service.forEachProduct(streamed::add);
+
+		assertEquals(5, streamed.size());
+	}
+}
@@ -0,0 +1,120 @@
+package com.example.product_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.example.product_service.config.CacheConfig;
+import com.example.product_service.dto.ProductRequest;
+import com.example.product_service.dto.ProductResponse;
+import com.example.product_service.event.ProductChangePublisher;
+import com.example.product_service.mapper.ProductMapper;
+import com.example.product_service.model.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.search.ProductSearchIndex;
+
+@SpringJUnitConfig
+class ProductServiceCachingTests {
+
+	@Configuration
+	@EnableCaching
+	static class Config {
+
+		@Bean
+		ProductRepository productRepository() {
+			return mock(ProductRepository.class);
+		}
+
+		@Bean
+		CacheManager cacheManager() {
+			// Fixed regions: an annotation naming any other cache fails
+			return new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCT_SEARCH);
+		}
+
+		@Bean
+		ProductService productService(ProductRepository productRepository, CacheManager cacheManager) {
+			return new ProductServiceImpl(productRepository, new ProductMapper(), mock(ProductChangePublisher.class),
+					new ProductSearchIndex(productRepository), cacheManager);
+		}
+	}
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository repository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private final Product laptop = new Product("laptop", "Laptop", "", 1200.0, 10, 0);
+
+	@BeforeEach
+	void setUp() {
+		cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+		clearInvocations(repository);
+		when(repository.findById("laptop")).thenReturn(Optional.of(laptop));
+		when(repository.findByNameContainingIgnoreCase(any())).thenReturn(List.of(laptop));
+		when(repository.findAllById(any())).thenReturn(List.of(laptop));
+		when(repository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(repository.decrementStock(eq("laptop"), anyInt())).thenAnswer(invocation -> {
+			laptop.setQuantity(laptop.getQuantity() - invocation.<Integer>getArgument(1));
+			return 1;
+		});
+	}
+
+	@Test
+	void searchAndLookupByIdUseSeparateRegions() {
+		List<ProductResponse> found = productService.searchProductsByName("laptop", false, 20);
+		ProductResponse product = productService.getProduct("laptop");
+
+		assertEquals("laptop", product.id());
+		assertEquals(found, productService.searchProductsByName("LAPTOP", false, 20));
+		verify(repository, times(1)).findByNameContainingIgnoreCase(any());
+		assertEquals(product, cacheManager.getCache(CacheConfig.PRODUCTS).get("laptop").get());
+	}
+
+	@Test
+	void stockChangesKeepCachedSearches() {
+		productService.searchProductsByName("lap", true, 20);
+		assertEquals(List.of("laptop"), cacheManager.getCache(CacheConfig.PRODUCT_SEARCH).get("lap:true:20").get());
+
+		productService.updateProductStock("laptop", 1);
+
+		assertNotNull(cacheManager.getCache(CacheConfig.PRODUCT_SEARCH).get("lap:true:20"));
+		assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get("laptop"));
+		// The cached ids resolve to the current product
+		assertEquals(9, productService.searchProductsByName("lap", true, 20).get(0).quantity());
+		verify(repository, times(1)).findByNameContainingIgnoreCase(any());
+	}
+
+	@Test
+	void renamingEvictsCachedSearches() {
+		productService.searchProductsByName("lap", true, 20);
+
+		productService.updateProduct("laptop", new ProductRequest("Notebook", "", 1200.0, 10, 0L));
+
+		assertNull(cacheManager.getCache(CacheConfig.PRODUCT_SEARCH).get("lap:true:20"));
+	}
+}
@@ -0,0 +1,171 @@
+package com.example.product_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.product_service.dto.ProductChangeEvent;
+import com.example.product_service.dto.ProductRequest;
+import com.example.product_service.dto.ProductResponse;
+import com.example.product_service.event.ProductChangePublisher;
+import com.example.product_service.exception.InsufficientStockException;
+import com.example.product_service.exception.MissingVersionException;
+import com.example.product_service.exception.ProductNotFoundException;
+import com.example.product_service.mapper.ProductMapper;
+import com.example.product_service.model.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.search.ProductSearchIndex;
+
+// Not transactional, every thread has to commit for the others to see its decrement
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ ProductServiceImpl.class, ProductMapper.class, ProductSearchIndex.class })
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:product-stock",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=" })
+class ProductStockConcurrencyTests {
+
+	private static final int THREADS = 16;
+	private static final int ORDERS_PER_THREAD = 50;
+
+	@Autowired
+	private ProductRepository repository;
+
+	@Autowired
+	private ProductService service;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@MockitoBean
+	private ProductChangePublisher changePublisher;
+
+	@AfterEach
+	void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	void concurrentOrdersNeitherOversellNorLoseDecrements() throws Exception {
+		final int stock = 600;
+		String id = repository.save(Product.builder().name("Keyboard").price(50.0).quantity(stock).build()).getId();
+
+		AtomicInteger sold = new AtomicInteger();
+		AtomicInteger refused = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> consumers = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			consumers.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+					try {
+						int left = service.updateProductStock(id, 1).quantity();
+						assertTrue(left >= 0, "Stock went negative: " + left);
+						sold.incrementAndGet();
+					} catch (InsufficientStockException e) {
+						refused.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> consumer : consumers) {
+			consumer.get(60, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		Product product = repository.findById(id).orElseThrow();
+		assertEquals(stock, sold.get());
+		assertEquals(THREADS * ORDERS_PER_THREAD - stock, refused.get());
+		assertEquals(0, product.getQuantity());
+		assertEquals(stock, product.getVersion());
+	}
+
+	@Test
+	void refusesOrderLargerThanStock() {
+		String id = repository.save(Product.builder().name("Mouse").price(20.0).quantity(3).build()).getId();
+
+		assertThrows(InsufficientStockException.class, () -> service.updateProductStock(id, 4));
+		assertEquals(1, service.updateProductStock(id, 2).quantity());
+		assertThrows(ProductNotFoundException.class, () -> service.updateProductStock("missing", 1));
+	}
+
+	@Test
+	void publishesStockChangeOnlyOnceCommitted() {
+		String id = repository.save(Product.builder().name("Headset").price(40.0).quantity(5).build()).getId();
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+		transaction.executeWithoutResult(status -> {
+			service.updateProductStock(id, 1);
+			verify(changePublisher, never()).publish(id, ProductChangeEvent.Type.UPDATED);
+		});
+		verify(changePublisher).publish(id, ProductChangeEvent.Type.UPDATED);
+
+		clearInvocations(changePublisher);
+		transaction.executeWithoutResult(status -> {
+			service.updateProductStock(id, 1);
+			status.setRollbackOnly();
+		});
+		verify(changePublisher, never()).publish(id, ProductChangeEvent.Type.UPDATED);
+		assertEquals(4, repository.findById(id).orElseThrow().getQuantity());
+	}
+
+	@Test
+	void fullUpdateFromStaleCopyIsRejected() {
+		String id = repository.save(Product.builder().name("Monitor").price(300.0).quantity(5).build()).getId();
+		Product stale = repository.findById(id).orElseThrow();
+
+		service.updateProductStock(id, 1);
+		stale.setPrice(250.0);
+
+		// Saving the stale copy would put the sold unit back
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> repository.save(stale));
+		assertEquals(4, repository.findById(id).orElseThrow().getQuantity());
+	}
+
+	@Test
+	void fullUpdateBasedOnOlderVersionIsRejected() {
+		ProductResponse read = service.getProduct(
+				repository.save(Product.builder().name("Webcam").price(80.0).quantity(5).build()).getId());
+
+		service.updateProductStock(read.id(), 2);
+
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> service.updateProduct(read.id(),
+				new ProductRequest("Webcam", "", 70.0, read.quantity(), read.version())));
+		assertThrows(MissingVersionException.class, () -> service.updateProduct(read.id(),
+				new ProductRequest("Webcam", "", 70.0, 3, null)));
+
+		ProductResponse current = service.getProduct(read.id());
+		assertEquals(3, current.quantity());
+		assertEquals(60.0, service.updateProduct(read.id(),
+				new ProductRequest("Webcam", "", 60.0, current.quantity(), current.version())).price());
+	}
+}
@@ -0,0 +1,112 @@
+package com.example.product_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.product_service.config.CacheConfig;
+import com.example.product_service.dto.OrderEvent;
+import com.example.product_service.dto.ProductChangeEvent;
+import com.example.product_service.event.ProductChangePublisher;
+import com.example.product_service.model.Product;
+import com.example.product_service.repository.ProductRepository;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock-batch",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=" })
+class StockBatchServiceTests {
+
+	@Autowired
+	private ProductRepository repository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS, CacheConfig.PRODUCT_SEARCH);
+	private final ProductChangePublisher changePublisher = mock(ProductChangePublisher.class);
+	private StockBatchService service;
+
+	@BeforeEach
+	void setUp() {
+		repository.deleteAll();
+		service = new StockBatchService(repository, transactionManager, cacheManager, changePublisher);
+	}
+
+	@Test
+	void takesOneDecrementPerProduct() {
+		String pen = save("Pen", 100);
+		String ink = save("Ink", 10);
+		cacheManager.getCache(CacheConfig.PRODUCTS).put(pen, "stale");
+
+		List<OrderEvent> orders = List.of(order(pen, 5), order(ink, 2), order(pen, 10), order(ink, 3));
+		List<OrderEvent> accepted = service.takeStock(orders);
+
+		assertEquals(4, accepted.size());
+		assertEquals(85, quantity(pen));
+		assertEquals(5, quantity(ink));
+		// One write per product, so one version bump
+		assertEquals(1, repository.findById(pen).orElseThrow().getVersion());
+		assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get(pen));
+		verify(changePublisher).publish(pen, ProductChangeEvent.Type.UPDATED);
+	}
+
+	@Test
+	void acceptsOrdersInArrivalOrderWhileStockLasts() {
+		String pen = save("Pen", 10);
+
+		List<OrderEvent> orders = List.of(order(pen, 6), order(pen, 5), order(pen, 4), order(pen, 1));
+		List<OrderEvent> accepted = service.takeStock(orders);
+
+		assertEquals(List.of(orders.get(0), orders.get(2)), accepted);
+		assertEquals(0, quantity(pen));
+	}
+
+	@Test
+	void skipsUnknownProducts() {
+		String pen = save("Pen", 10);
+
+		List<OrderEvent> accepted = service.takeStock(List.of(order("missing", 1), order(pen, 1)));
+
+		assertEquals(List.of(order(pen, 1)), accepted);
+	}
+
+	@Test
+	void refusesOrdersWithoutPositiveQuantity() {
+		String pen = save("Pen", 10);
+
+		List<OrderEvent> accepted = service.takeStock(List.of(order(pen, -5), order(pen, 0), order(pen, 12)));
+
+		// The negative order must not make room for the one above the stock
+		assertEquals(List.of(), accepted);
+		assertEquals(10, quantity(pen));
+	}
+
+	private String save(String name, int quantity) {
+		return repository.save(Product.builder().name(name).price(1.0).quantity(quantity).build()).getId();
+	}
+
+	private int quantity(String id) {
+		return repository.findById(id).orElseThrow().getQuantity();
+	}
+
+	private static OrderEvent order(String productId, int quantity) {
+		return new OrderEvent(productId, quantity, "user-1");
+	}
+}
@@ -0,0 +1,162 @@
+package com.example.product_service.stock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import com.example.product_service.dto.ProductResponse;
+import com.example.product_service.exception.InsufficientStockException;
+import com.example.product_service.model.Product;
+import com.example.product_service.repository.ProductRepository;
+import com.example.product_service.service.ProductService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class HotStockLedgerTests {
+
+	private final ProductService productService = mock(ProductService.class);
+	private final ProductRepository repository = mock(ProductRepository.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private HotStockLedger ledger;
+
+	@BeforeEach
+	void setUp() {
+		ledger = new HotStockLedger(productService, repository, registry, "console, headset");
+		when(repository.findById("console")).thenReturn(Optional.of(product(10)));
+	}
+
+	@Test
+	void flagsConfiguredProductsOnly() {
+		assertTrue(ledger.isHot("console"));
+		assertTrue(ledger.isHot("headset"));
+		assertFalse(ledger.isHot("laptop"));
+	}
+
+	@Test
+	void reservesFromMemoryAndFlushesOneDelta() {
+		Acknowledgment first = mock(Acknowledgment.class);
+		Acknowledgment second = mock(Acknowledgment.class);
+		Acknowledgment refused = mock(Acknowledgment.class);
+
+		assertTrue(reserve(6, first));
+		assertTrue(reserve(3, second));
+		assertFalse(reserve(2, refused));
+		assertEquals(1, ledger.available("console"));
+		verify(first, never()).acknowledge();
+
+		when(productService.updateProductStock("console", 9)).thenReturn(response(1));
+		ledger.flush();
+
+		verify(productService).updateProductStock("console", 9);
+		verify(first).acknowledge();
+		verify(second).acknowledge();
+		verify(refused, never()).acknowledge();
+	}
+
+	@Test
+	void refusesNonPositiveQuantities() {
+		Acknowledgment acknowledgment = mock(Acknowledgment.class);
+
+		assertThrows(IllegalArgumentException.class, () -> reserve(0, acknowledgment));
+		assertThrows(IllegalArgumentException.class, () -> reserve(-5, acknowledgment));
+		assertEquals(-1, ledger.available("console"));
+
+		assertTrue(reserve(4, acknowledgment));
+		assertThrows(IllegalArgumentException.class, () -> reserve(-4, acknowledgment));
+		assertEquals(6, ledger.available("console"));
+	}
+
+	@Test
+	void failedFlushKeepsReservationsUnacknowledged() {
+		Acknowledgment acknowledgment = mock(Acknowledgment.class);
+		reserve(4, acknowledgment);
+
+		when(productService.updateProductStock("console", 4)).thenThrow(new DataAccessResourceFailureException("down"));
+		ledger.flush();
+		verify(acknowledgment, never()).acknowledge();
+
+		Acknowledgment later = mock(Acknowledgment.class);
+		reserve(1, later);
+		when(productService.updateProductStock("console", 5)).thenReturn(response(5));
+		ledger.flush();
+
+		verify(acknowledgment).acknowledge();
+		verify(later).acknowledge();
+		assertEquals(5, ledger.available("console"));
+	}
+
+	@Test
+	void flushPicksUpRestock() {
+		reserve(10, mock(Acknowledgment.class));
+		assertFalse(reserve(1, mock(Acknowledgment.class)));
+
+		// 10 units were sold and an admin added 20 in the meantime
+		when(productService.updateProductStock("console", 10)).thenReturn(response(20));
+		ledger.flush();
+
+		assertEquals(20, ledger.available("console"));
+		assertTrue(reserve(1, mock(Acknowledgment.class)));
+	}
+
+	@Test
+	void resetReloadsStoredLevel() {
+		reserve(2, mock(Acknowledgment.class));
+		when(productService.updateProductStock("console", 2)).thenReturn(response(8));
+
+		ledger.flushAndReset();
+
+		assertEquals(-1, ledger.available("console"));
+	}
+
+	@Test
+	void stockLoweredBelowPendingReservationsStoresOnlyWhatFits() {
+		Acknowledgment first = mock(Acknowledgment.class);
+		Acknowledgment second = mock(Acknowledgment.class);
+		Acknowledgment third = mock(Acknowledgment.class);
+		List<String> confirmed = new ArrayList<>();
+		assertTrue(ledger.reserve("console", 4, first, () -> confirmed.add("first")));
+		assertTrue(ledger.reserve("console", 4, second, () -> confirmed.add("second")));
+		assertTrue(ledger.reserve("console", 1, third, () -> confirmed.add("third")));
+		assertTrue(confirmed.isEmpty());
+
+		// An admin lowered the stock to 5 before the 9 reserved units were stored
+		when(productService.updateProductStock("console", 9)).thenThrow(new InsufficientStockException("short"));
+		when(repository.findById("console")).thenReturn(Optional.of(product(5)));
+		when(productService.updateProductStock("console", 5)).thenReturn(response(0));
+		ledger.flush();
+
+		verify(productService).updateProductStock("console", 5);
+		assertEquals(List.of("first", "third"), confirmed);
+		verify(first).acknowledge();
+		verify(second).acknowledge();
+		verify(third).acknowledge();
+		assertEquals(1, registry.get("stock.hot.reservations").tag("result", "revoked").counter().count());
+		assertEquals(0, ledger.available("console"));
+	}
+
+	private boolean reserve(int quantity, Acknowledgment acknowledgment) {
+		return ledger.reserve("console", quantity, acknowledgment, () -> {});
+	}
+
+	private static Product product(int quantity) {
+		return Product.builder().id("console").name("Console").price(500.0).quantity(quantity).build();
+	}
+
+	private static ProductResponse response(int quantity) {
+		return new ProductResponse("console", "Console", "", 500.0, quantity, 0L);
+	}
+}
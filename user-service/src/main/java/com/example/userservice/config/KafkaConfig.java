@@ -0,0 +1,30 @@
+package com.example.userservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+import com.example.userservice.event.UserEventPublisher;
+
+/**
+ * Configuration class for the Kafka topics owned by the user service.
+ */
+@Configuration
+public class KafkaConfig {
+
+    /**
+     * Compacted topic of user changes, keyed by user id.
+     * Compaction keeps the latest event of every user and drops deleted users after their tombstone,
+     * so a consumer reading it from the start gets the current state of all users.
+     *
+     * @return The user-changed topic definition
+     */
+    @Bean
+    public NewTopic userChangedTopic() {
+        return TopicBuilder.name(UserEventPublisher.TOPIC)
+                .partitions(3)
+                .compact()
+                .build();
+    }
+}
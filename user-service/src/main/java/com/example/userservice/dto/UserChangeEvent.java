@@ -0,0 +1,17 @@
+package com.example.userservice.dto;
+
+/**
+ * Event published on the user-changed topic whenever a user is created or updated.
+ * Deleted users are published as a tombstone (a null value) under their id.
+ */
+public record UserChangeEvent(
+        /**
+         * The unique identifier of the user.
+         */
+        String id,
+
+        /**
+         * The email address of the user.
+         */
+        String email) {
+}
@@ -0,0 +1,109 @@
+package com.example.userservice.event;
+
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.userservice.dto.UserChangeEvent;
+import com.example.userservice.entity.User;
+import com.example.userservice.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Kafka producer for user change events.
+ * Publishes every created, updated and deleted user on the compacted user-changed topic, keyed by
+ * user id, so other services can keep a local copy of the user data they need.
+ * The service announces its writes as application events, which are only sent once the transaction
+ * has committed, so a rolled back write is never published.
+ */
+@Component
+public class UserEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(UserEventPublisher.class);
+
+    public static final String TOPIC = "user-changed";
+
+    /**
+     * Application event of a deleted user.
+     *
+     * @param id The unique identifier of the deleted user
+     */
+    public record UserDeleted(String id) {
+    }
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepo;
+    private final boolean publishOnStartup;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param publishOnStartup Whether to publish every existing user once the application is ready
+     */
+    public UserEventPublisher(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+            UserRepository userRepo, @Value("${users.events.publish-on-startup:false}") boolean publishOnStartup) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.userRepo = userRepo;
+        this.publishOnStartup = publishOnStartup;
+    }
+
+    /**
+     * Publishes the current state of a created or updated user, once its transaction has committed.
+     *
+     * @param event The saved state of the user
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publishChanged(UserChangeEvent event) {
+        try {
+            send(event.id(), objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            log.error("Could not serialize the change of user {}", event.id(), e);
+        }
+    }
+
+    /**
+     * Publishes a tombstone for a deleted user, once its transaction has committed. Compaction
+     * eventually removes it with the user's previous events.
+     *
+     * @param event The deleted user
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publishDeleted(UserDeleted event) {
+        send(event.id(), null);
+    }
+
+    private void send(String id, String value) {
+        kafkaTemplate.send(TOPIC, id, value).whenComplete((result, e) -> {
+            if (e != null) {
+                log.error("Could not publish the change of user {}, consumers keep its previous state", id, e);
+            }
+        });
+    }
+
+    /**
+     * Publishes every existing user, for users created before the topic existed.
+     * Enabled with users.events.publish-on-startup. Publishing a user again is harmless since
+     * compaction only keeps the latest event.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void publishAllOnStartup() {
+        if (!publishOnStartup) {
+            return;
+        }
+        try (Stream<User> users = userRepo.streamAllBy()) {
+            users.forEach(user -> publishChanged(new UserChangeEvent(user.getId(), user.getEmail())));
+        }
+    }
+}
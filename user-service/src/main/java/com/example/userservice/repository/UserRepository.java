@@ -1,5 +1,7 @@
 package com.example.userservice.repository;
 
+import java.util.stream.Stream;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -19,4 +21,12 @@ public interface UserRepository extends JpaRepository<User, String> {
      * @return true if a user with the email exists, false otherwise
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Streams all users, so they can be processed without loading them all at once.
+     * Must be called within a transaction and the stream closed after use.
+     * 
+     * @return Stream of all User entities
+     */
+    Stream<User> streamAllBy();
 }
@@ -5,10 +5,14 @@ import java.util.List;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.userservice.dto.UserChangeEvent;
 import com.example.userservice.dto.UserRequest;
 import com.example.userservice.entity.User;
+import com.example.userservice.event.UserEventPublisher;
 import com.example.userservice.exception.UserAlreadyExistsException;
 import com.example.userservice.exception.UserNotFoundException;
 import com.example.userservice.repository.UserRepository;
@@ -20,14 +24,17 @@ import com.example.userservice.repository.UserRepository;
 @Service
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepo;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
-     * Constructor for dependency injection of UserRepository.
+     * Constructor for dependency injection of UserRepository and ApplicationEventPublisher.
      * 
-     * @param repo The repository for user data access
+     * @param repo           The repository for user data access
+     * @param eventPublisher Announces user changes, {@link UserEventPublisher} sends them once committed
      */
-    public UserServiceImpl(UserRepository repo) {
+    public UserServiceImpl(UserRepository repo, ApplicationEventPublisher eventPublisher) {
         this.userRepo = repo;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -40,6 +47,7 @@ public class UserServiceImpl implements UserService {
      *                                    exists
      */
     @Override
+    @Transactional
     public User createUser(UserRequest dto) {
         if (userRepo.existsByEmail(dto.email())) {
             throw new UserAlreadyExistsException("User with email " + dto.email() + " already exists.");
@@ -47,6 +55,7 @@ public class UserServiceImpl implements UserService {
 
         User user = new User(dto.name(), dto.email());
         User savedUser = userRepo.save(user);
+        eventPublisher.publishEvent(new UserChangeEvent(savedUser.getId(), savedUser.getEmail()));
         return savedUser;
     }
 
@@ -76,7 +85,7 @@ public class UserServiceImpl implements UserService {
 
     /**
      * Updates an existing user with the provided details.
-     * Updates the user data and refreshes the cache to keep it consistent.
+     * Updates the user data, refreshes the cache to keep it consistent and publishes the change.
      * 
      * @param id          The unique identifier of the user to update
      * @param updatedUser The updated user details
@@ -86,16 +95,19 @@ public class UserServiceImpl implements UserService {
     @Override
     // Cache user data when updating to keep cache consistent
     @CachePut(value = "users", key = "#id")
+    @Transactional
     public User updateUser(String id, UserRequest updatedUser) {
         return userRepo.findById(id).map(u -> {
             u.setName(updatedUser.name());
             u.setEmail(updatedUser.email());
-            return userRepo.save(u);
+            User savedUser = userRepo.save(u);
+            eventPublisher.publishEvent(new UserChangeEvent(savedUser.getId(), savedUser.getEmail()));
+            return savedUser;
         }).orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found"));
     }
 
     /**
-     * Deletes a user by ID and evicts the user from cache.
+     * Deletes a user by ID, evicts the user from cache and publishes the deletion.
      * 
      * @param id The unique identifier of the user to delete
      * @throws UserNotFoundException if user with the given ID is not found
@@ -103,9 +115,11 @@ public class UserServiceImpl implements UserService {
     @Override
     // Evict the cache when a user is deleted
     @CacheEvict(value = "users", key = "#id")
+    @Transactional
     public void deleteUser(String id) {
         User user = userRepo.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User with id " + id + " not found"));
         userRepo.delete(user);
+        eventPublisher.publishEvent(new UserEventPublisher.UserDeleted(id));
     }
 }